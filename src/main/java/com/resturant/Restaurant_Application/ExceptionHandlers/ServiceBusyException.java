@@ -0,0 +1,5 @@
+package com.resturant.Restaurant_Application.ExceptionHandlers;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) { super(message); }
+}
@@ -2,6 +2,7 @@ package com.resturant.Restaurant_Application.customer.controller;
 
 import com.resturant.Restaurant_Application.customer.controller.CustomerOrdersResponse;
 import com.resturant.Restaurant_Application.customer.entity.dtos.CompleteOrderView;
+import com.resturant.Restaurant_Application.customer.entity.dtos.KeysetPage;
 import com.resturant.Restaurant_Application.customer.entity.dtos.PaymentResponseWithOrder;
 import com.resturant.Restaurant_Application.restaurant.admin.service.AdminOrderService;
 import lombok.RequiredArgsConstructor;
@@ -24,10 +25,12 @@ public class AdminOrderController {
 
     // ------------------- Orders -------------------
 
+    // paged newest first; pass the returned nextCursor back as ?cursor= for the next page
     @GetMapping
-    public List<CompleteOrderView> getAllOrders() {
+    public KeysetPage<CompleteOrderView> getAllOrders(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size) {
         log.info("Admin request: Get all orders");
-        return adminOrderService.getAllOrders();
+        return adminOrderService.getAllOrders(cursor, size);
     }
 
     @GetMapping("/{orderId}")
@@ -51,9 +54,10 @@ public class AdminOrderController {
     // ------------------- Payments -------------------
 
     @GetMapping("/payments")
-    public List<PaymentResponseWithOrder> getAllPayments() {
+    public KeysetPage<PaymentResponseWithOrder> getAllPayments(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size) {
         log.info("Admin request: Get all payments");
-        return adminOrderService.getAllPayments();
+        return adminOrderService.getAllPayments(cursor, size);
     }
 
     @GetMapping("/payments/by-date")
@@ -71,8 +75,17 @@ public class AdminOrderController {
     // ------------------- Customers -------------------
 
     @GetMapping("/customers")
-    public List<CustomerOrdersResponse> getAllCustomersWithOrders() {
+    public KeysetPage<CustomerOrdersResponse> getAllCustomersWithOrders(@RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer size) {
         log.info("Admin request: Get all customers with orders");
-        return adminOrderService.getAllCustomersWithOrders();
+        return adminOrderService.getAllCustomersWithOrders(cursor, size);
+    }
+
+    @GetMapping("/customers/{customerId}/orders")
+    public KeysetPage<CompleteOrderView> getCustomerOrders(@PathVariable Integer customerId,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer size) {
+        log.info("Admin request: Get orders of customer {}", customerId);
+        return adminOrderService.getCustomerOrders(customerId, cursor, size);
     }
 }
@@ -1,18 +1,19 @@
 package com.resturant.Restaurant_Application.customer.controller;
 
-import com.resturant.Restaurant_Application.customer.entity.CustomerEntity;
 import com.resturant.Restaurant_Application.customer.entity.Enum.Status;
 import com.resturant.Restaurant_Application.customer.entity.dtos.*;
-import com.resturant.Restaurant_Application.customer.security.TokenService;
-import com.resturant.Restaurant_Application.customer.service.CustomerCreationService;
+import com.resturant.Restaurant_Application.customer.security.AuthenticatedCustomer;
+import com.resturant.Restaurant_Application.customer.security.UserSnapshot;
 import com.resturant.Restaurant_Application.customer.service.RestaurantOrderService;
 import com.resturant.Restaurant_Application.restaurant.Menu;
+import com.resturant.Restaurant_Application.restaurant.admin.service.MenuCatalogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -25,31 +26,27 @@ import java.util.List;
 public class CustomerOrderController {
 
     private final RestaurantOrderService restaurantOrderService;
-    private final CustomerCreationService customerService;
-    private final TokenService tokenService;
-
-    private CustomerEntity getUserFromToken(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            log.error("Missing or invalid Authorization header");
-            throw new RuntimeException("Missing or invalid Authorization header");
-        }
-        String token = authHeader.substring(7);
-        String email = tokenService.getEmailFromAccessToken(token);
-        log.info("Authenticated user: {}", email);
-        return customerService.getUserByEmail(email);
-    }
+    private final AuthenticatedCustomer authenticatedCustomer;
+    private final MenuCatalogService catalogService;
 
     // ------------------ MENU ------------------
+    // menu, category and toppings responses carry the catalog etag; a matching If-None-Match gets a 304
+    // before the customer lookup or any mapping, since the security filter has already authenticated the caller
     @GetMapping("/menu")
-    public ResponseEntity<List<MenuResponse>> getMenu(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
-        CustomerEntity customerEntity = getUserFromToken(authHeader);
+    public ResponseEntity<List<MenuResponse>> getMenu(WebRequest webRequest) {
+        String etag = catalogService.snapshot().etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        UserSnapshot customerEntity = authenticatedCustomer.customer();
         if (customerEntity == null) {
             throw new RuntimeException("Missing or invalid Authorization header");
         }
         try {
-            List<MenuResponse> menu = restaurantOrderService.viewMenu(getUserFromToken(authHeader).getEmail());
+            List<MenuResponse> menu = restaurantOrderService.viewMenu(authenticatedCustomer.email());
             log.info("Fetched restaurant menu: {} items", menu.size());
-            return ResponseEntity.ok(menu);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(menu);
         } catch (Exception e) {
             log.error("Error fetching menu", e);
             throw new RuntimeException(e);
@@ -57,13 +54,13 @@ public class CustomerOrderController {
     }
 
     @GetMapping("/menu/search")
-    public ResponseEntity<List<MenuResponse>> searchMenu(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @RequestParam String keyword) {
-        CustomerEntity customerEntity = getUserFromToken(authHeader);
+    public ResponseEntity<List<MenuResponse>> searchMenu(@RequestParam String keyword) {
+        UserSnapshot customerEntity = authenticatedCustomer.customer();
         if (customerEntity == null) {
             throw new RuntimeException("Missing or invalid Authorization header");
         }
         try {
-            List<MenuResponse> menu = restaurantOrderService.searchMenuItems(customerEntity.getEmail(), keyword);
+            List<MenuResponse> menu = restaurantOrderService.searchMenuItems(customerEntity.email(), keyword);
             return ResponseEntity.ok(menu);
         } catch (Exception e) {
             log.error("Error fetching menu", e);
@@ -73,14 +70,20 @@ public class CustomerOrderController {
 
 
     @GetMapping("/menu/category")
-    public ResponseEntity<List<MenuResponse>> menuCategory(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,@RequestParam String category){
-        CustomerEntity customerEntity = getUserFromToken(authHeader);
+    public ResponseEntity<List<MenuResponse>> menuCategory(@RequestParam String category,
+                                                           WebRequest webRequest){
+        String etag = catalogService.snapshot().etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        UserSnapshot customerEntity = authenticatedCustomer.customer();
         if (customerEntity == null) {
             throw new RuntimeException("Missing or invalid Authorization header");
         }
         try {
-            List<MenuResponse> menu = restaurantOrderService.groupByCategory(customerEntity.getEmail(), category);
-            return ResponseEntity.ok(menu);
+            List<MenuResponse> menu = restaurantOrderService.groupByCategory(customerEntity.email(), category);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(menu);
         } catch (Exception e) {
             log.error("Error fetching menu", e);
             throw new RuntimeException(e);
@@ -89,11 +92,16 @@ public class CustomerOrderController {
 
 
     @GetMapping("/toppings")
-    public ResponseEntity<List<ToppingsResponse>> getToppings(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+    public ResponseEntity<List<ToppingsResponse>> getToppings(WebRequest webRequest) {
+        String etag = catalogService.snapshot().etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
         try {
-            List<ToppingsResponse> toppings = restaurantOrderService.viewToppings(getUserFromToken(authHeader).getEmail());
+            List<ToppingsResponse> toppings = restaurantOrderService.viewToppings(authenticatedCustomer.email());
             log.info("Fetched toppings: {} items", toppings.size());
-            return ResponseEntity.ok(toppings);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(toppings);
         } catch (Exception e) {
             log.error("Error fetching toppings", e);
             throw new RuntimeException(e);
@@ -101,13 +109,13 @@ public class CustomerOrderController {
     }
 
     @GetMapping("/toppings/search")
-    public ResponseEntity<List<ToppingsResponse>> userToppingsSearch(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader, @RequestParam String keyword) {
-        CustomerEntity customer = getUserFromToken(authHeader);
+    public ResponseEntity<List<ToppingsResponse>> userToppingsSearch(@RequestParam String keyword) {
+        UserSnapshot customer = authenticatedCustomer.customer();
         if (customer == null) {
             throw new RuntimeException("Missing or invalid Authorization header");
         }
         try{
-            List<ToppingsResponse> toppings = restaurantOrderService.searchToppings(customer.getEmail(), keyword);
+            List<ToppingsResponse> toppings = restaurantOrderService.searchToppings(customer.email(), keyword);
             log.info("Fetched search toppings: {} items", toppings.size());
             return ResponseEntity.ok(toppings);
         } catch (Exception e) {
@@ -116,12 +124,16 @@ public class CustomerOrderController {
     }
 
     // ------------------ ORDERS ------------------
+    // paged newest first; pass the returned nextCursor back as ?cursor= for the next page
     @GetMapping("/orders")
-    public ResponseEntity<List<OrderResponse>> getOrders(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+    public ResponseEntity<KeysetPage<OrderResponse>> getOrders(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size) {
         try {
-            List<OrderResponse> orders = restaurantOrderService.viewOrders(getUserFromToken(authHeader).getEmail());
-            log.info("Fetched orders: {} items", orders.size());
+            KeysetPage<OrderResponse> orders = restaurantOrderService.viewOrders(authenticatedCustomer.email(), cursor, size);
+            log.info("Fetched orders: {} items", orders.items().size());
             return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            throw e; // malformed cursor: 400 from GlobalExceptionHandler
         } catch (Exception e) {
             log.error("Error fetching orders", e);
             throw new RuntimeException(e);
@@ -129,11 +141,14 @@ public class CustomerOrderController {
     }
 
     @GetMapping("/orders/complete")
-    public ResponseEntity<List<CompleteOrderView>> getCompleteOrders(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+    public ResponseEntity<KeysetPage<CompleteOrderView>> getCompleteOrders(@RequestParam(required = false) String cursor,
+                                                                           @RequestParam(required = false) Integer size) {
         try {
-            List<CompleteOrderView> orders = restaurantOrderService.getCompleteOrders(getUserFromToken(authHeader).getEmail());
-            log.info("Fetched complete orders: {} items", orders.size());
+            KeysetPage<CompleteOrderView> orders = restaurantOrderService.getCompleteOrders(authenticatedCustomer.email(), cursor, size);
+            log.info("Fetched complete orders: {} items", orders.items().size());
             return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            throw e; // malformed cursor: 400 from GlobalExceptionHandler
         } catch (Exception e) {
             log.error("Error fetching complete orders", e);
             throw new RuntimeException(e);
@@ -142,10 +157,9 @@ public class CustomerOrderController {
 
     @GetMapping("/orders/{orderId}")
     public ResponseEntity<CompleteOrderView> getOrderById(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @PathVariable Integer orderId) {
         try {
-            CompleteOrderView order = restaurantOrderService.getOrderById(getUserFromToken(authHeader).getEmail(), orderId);
+            CompleteOrderView order = restaurantOrderService.getOrderById(authenticatedCustomer.email(), orderId);
             log.info("Fetched order with ID: {}", orderId);
             return ResponseEntity.ok(order);
         } catch (Exception e) {
@@ -155,9 +169,9 @@ public class CustomerOrderController {
     }
 
     @GetMapping("/orders/recent")
-    public ResponseEntity<List<CompleteOrderView>> getRecentOrders(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+    public ResponseEntity<List<CompleteOrderView>> getRecentOrders() {
         try {
-            List<CompleteOrderView> recentOrders = restaurantOrderService.getMostRecentOrders(getUserFromToken(authHeader).getEmail());
+            List<CompleteOrderView> recentOrders = restaurantOrderService.getMostRecentOrders(authenticatedCustomer.email());
             log.info("Fetched recent orders: {} items", recentOrders.size());
             return ResponseEntity.ok(recentOrders);
         } catch (Exception e) {
@@ -168,10 +182,9 @@ public class CustomerOrderController {
 
     @GetMapping("/orders/date")
     public ResponseEntity<List<CompleteOrderView>> getOrdersByDate(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestParam LocalDate date) {
         try {
-            List<CompleteOrderView> orders = restaurantOrderService.getByOrderDate(getUserFromToken(authHeader).getEmail(), date);
+            List<CompleteOrderView> orders = restaurantOrderService.getByOrderDate(authenticatedCustomer.email(), date);
             log.info("Fetched orders for date: {}", date);
             return ResponseEntity.ok(orders);
         } catch (Exception e) {
@@ -182,10 +195,9 @@ public class CustomerOrderController {
 
     @GetMapping("/orders/status")
     public ResponseEntity<List<CompleteOrderView>> getOrdersByStatus(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestParam Status status) {
         try {
-            List<CompleteOrderView> orders = restaurantOrderService.getOrdersByStatus(getUserFromToken(authHeader).getEmail(), status);
+            List<CompleteOrderView> orders = restaurantOrderService.getOrdersByStatus(authenticatedCustomer.email(), status);
             log.info("Fetched orders with status: {}", status);
             return ResponseEntity.ok(orders);
         } catch (Exception e) {
@@ -196,11 +208,14 @@ public class CustomerOrderController {
 
     // ------------------ ORDER ITEMS ------------------
     @GetMapping("/orders/items")
-    public ResponseEntity<List<OrderItemsResponse>> getOrderItems(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+    public ResponseEntity<KeysetPage<OrderItemsResponse>> getOrderItems(@RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer size) {
         try {
-            List<OrderItemsResponse> items = restaurantOrderService.getOrderItems(getUserFromToken(authHeader).getEmail());
-            log.info("Fetched order items: {} items", items.size());
+            KeysetPage<OrderItemsResponse> items = restaurantOrderService.getOrderItems(authenticatedCustomer.email(), cursor, size);
+            log.info("Fetched order items: {} items", items.items().size());
             return ResponseEntity.ok(items);
+        } catch (IllegalArgumentException e) {
+            throw e; // malformed cursor: 400 from GlobalExceptionHandler
         } catch (Exception e) {
             log.error("Error fetching order items", e);
             throw new RuntimeException(e);
@@ -209,10 +224,9 @@ public class CustomerOrderController {
 
     @GetMapping("/orders/{orderId}/items")
     public ResponseEntity<List<OrderItemsResponse>> getOrderItemsByOrderId(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @PathVariable Integer orderId) {
         try {
-            List<OrderItemsResponse> items = restaurantOrderService.getOrderItemsByOrderId(getUserFromToken(authHeader).getEmail(), orderId);
+            List<OrderItemsResponse> items = restaurantOrderService.getOrderItemsByOrderId(authenticatedCustomer.email(), orderId);
             log.info("Fetched order items for order ID: {}", orderId);
             return ResponseEntity.ok(items);
         } catch (Exception e) {
@@ -223,11 +237,14 @@ public class CustomerOrderController {
 
     // ------------------ PAYMENTS ------------------
     @GetMapping("/payments")
-    public ResponseEntity<List<PaymentResponseWithOrder>> getPayments(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+    public ResponseEntity<KeysetPage<PaymentResponseWithOrder>> getPayments(@RequestParam(required = false) String cursor,
+                                                                            @RequestParam(required = false) Integer size) {
         try {
-            List<PaymentResponseWithOrder> payments = restaurantOrderService.viewPaymentRecords(getUserFromToken(authHeader).getEmail());
-            log.info("Fetched payments: {} items", payments.size());
+            KeysetPage<PaymentResponseWithOrder> payments = restaurantOrderService.viewPaymentRecords(authenticatedCustomer.email(), cursor, size);
+            log.info("Fetched payments: {} items", payments.items().size());
             return ResponseEntity.ok(payments);
+        } catch (IllegalArgumentException e) {
+            throw e; // malformed cursor: 400 from GlobalExceptionHandler
         } catch (Exception e) {
             log.error("Error fetching payments", e);
             throw new RuntimeException(e);
@@ -236,10 +253,9 @@ public class CustomerOrderController {
 
     @GetMapping("/payments/date")
     public ResponseEntity<List<PaymentResponseWithOrder>> getPaymentsByDate(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestParam LocalDate date) {
         try {
-            List<PaymentResponseWithOrder> payments = restaurantOrderService.getPaymentsByDate(getUserFromToken(authHeader).getEmail(), date);
+            List<PaymentResponseWithOrder> payments = restaurantOrderService.getPaymentsByDate(authenticatedCustomer.email(), date);
             log.info("Fetched payments for date: {}", date);
             return ResponseEntity.ok(payments);
         } catch (Exception e) {
@@ -249,9 +265,9 @@ public class CustomerOrderController {
     }
 
     @GetMapping("/payments/recent")
-    public ResponseEntity<List<PaymentResponseWithOrder>> getRecentPayments(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+    public ResponseEntity<List<PaymentResponseWithOrder>> getRecentPayments() {
         try {
-            List<PaymentResponseWithOrder> payments = restaurantOrderService.getMostRecentPayments(getUserFromToken(authHeader).getEmail());
+            List<PaymentResponseWithOrder> payments = restaurantOrderService.getMostRecentPayments(authenticatedCustomer.email());
             log.info("Fetched recent payments: {} items", payments.size());
             return ResponseEntity.ok(payments);
         } catch (Exception e) {
@@ -262,10 +278,9 @@ public class CustomerOrderController {
 
     @GetMapping("/payments/order/{orderId}")
     public ResponseEntity<PaymentResponseWithOrder> getPaymentByOrderId(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @PathVariable Integer orderId) {
         try {
-            PaymentResponseWithOrder payment = restaurantOrderService.getByOrderId_payments(getUserFromToken(authHeader).getEmail(), orderId);
+            PaymentResponseWithOrder payment = restaurantOrderService.getByOrderId_payments(authenticatedCustomer.email(), orderId);
             log.info("Fetched payment for order ID: {}", orderId);
             return ResponseEntity.ok(payment);
         } catch (Exception e) {
@@ -1,13 +1,14 @@
 package com.resturant.Restaurant_Application.customer.controller;
 
-import com.resturant.Restaurant_Application.customer.entity.dtos.CompleteOrderView;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.List;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
+// a customer's order history in summary; the orders themselves are paged from ordersUrl
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -16,5 +17,8 @@ public class CustomerOrdersResponse {
     private Integer customerId;
     private String customerName;
     private String customerEmail;
-    private List<CompleteOrderView> orders;
+    private long orderCount;
+    private LocalDateTime lastOrderDate;
+    private BigDecimal totalAmount;
+    private String ordersUrl;
 }
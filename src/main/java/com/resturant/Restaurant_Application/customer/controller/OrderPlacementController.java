@@ -1,20 +1,23 @@
 package com.resturant.Restaurant_Application.customer.controller;
 
 import com.resturant.Restaurant_Application.ExceptionHandlers.UserDoesNotExistException;
-import com.resturant.Restaurant_Application.customer.entity.CustomerEntity;
+import com.resturant.Restaurant_Application.customer.entity.Order;
 import com.resturant.Restaurant_Application.customer.entity.dtos.*;
-import com.resturant.Restaurant_Application.customer.security.TokenService;
-import com.resturant.Restaurant_Application.customer.service.CustomerCreationService;
+import com.resturant.Restaurant_Application.customer.security.AuthenticatedCustomer;
+import com.resturant.Restaurant_Application.customer.security.UserSnapshot;
 import com.resturant.Restaurant_Application.customer.service.OrderPlacementService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @Slf4j
 @RequiredArgsConstructor
@@ -22,35 +25,25 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/customer/orders")
 
 public class OrderPlacementController {
-    private final CustomerCreationService service;
-    private final TokenService tokenService;
+    private final AuthenticatedCustomer authenticatedCustomer;
     private final OrderPlacementService orderService;
 
-    private CustomerEntity getUserFromToken(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new RuntimeException("Missing or invalid Authorization header");
-        }
-        String token = authHeader.substring(7);
-        String email = tokenService.getEmailFromAccessToken(token);
-        return service.getUserByEmail(email);
-    }
-
     // to place order
     @PostMapping("/place")
-    public ResponseEntity<?> placeOrder(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
-        CustomerEntity customerEntity = getUserFromToken(authHeader);
+    public ResponseEntity<?> placeOrder() {
+        UserSnapshot customerEntity = authenticatedCustomer.customer();
         if (customerEntity == null) {
             throw new RuntimeException("Missing or invalid Authorization header");
         }
         try {
-            log.info("Placing new order for customer: {}", customerEntity.getEmail());
-            OrderResponse response = orderService.placeOrder(customerEntity.getEmail());
+            log.info("Placing new order for customer: {}", customerEntity.email());
+            OrderResponse response = orderService.placeOrder(customerEntity.email());
             return ResponseEntity.ok(response);
         } catch (UsernameNotFoundException e) {
-            log.error("Customer not found: {}",  customerEntity.getEmail(), e);
+            log.error("Customer not found: {}",  customerEntity.email(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         } catch (Exception e) {
-            log.error("Error placing order for customer: {}", customerEntity.getEmail(), e);
+            log.error("Error placing order for customer: {}", customerEntity.email(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to place order");
         }
     }
@@ -59,43 +52,120 @@ public class OrderPlacementController {
     @PostMapping("/{orderId}/add-items")
     public ResponseEntity<?> addOrderItems(
             @PathVariable Integer orderId,
-            @RequestBody OrderItemsRequest request,
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
-        CustomerEntity customerEntity = getUserFromToken(authHeader);
+            @RequestBody OrderItemsRequest request) {
+        UserSnapshot customerEntity = authenticatedCustomer.customer();
         if (customerEntity == null) {
             throw new RuntimeException("Missing or invalid Authorization header");
         }
         try {
-            log.info("Adding items to order {} for customer {}", orderId, customerEntity.getEmail());
-            CompleteOrderView response = orderService.addOrderItems(customerEntity.getEmail(), orderId, request);
+            log.info("Adding items to order {} for customer {}", orderId, customerEntity.email());
+            CompleteOrderView response = orderService.addOrderItems(customerEntity.email(), orderId, request);
             return ResponseEntity.ok(response);
         } catch (UserDoesNotExistException | UsernameNotFoundException e) {
             log.error("Error adding order items: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            log.warn("Order {} is not open for new items: {}", orderId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Concurrent change to order: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Order was changed by another request, please retry");
         } catch (Exception e) {
             log.error("Unexpected error adding order items", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to add order items");
         }
     }
 
+    // ---------------- Add order items (whole cart in one call) ----------------
+    @PostMapping("/{orderId}/add-items/batch")
+    public ResponseEntity<?> addOrderItemsBatch(
+            @PathVariable Integer orderId,
+            @RequestBody List<OrderItemsRequest> requests) {
+        UserSnapshot customerEntity = authenticatedCustomer.customer();
+        if (customerEntity == null) {
+            throw new RuntimeException("Missing or invalid Authorization header");
+        }
+        try {
+            log.info("Adding {} items to order {} for customer {}",
+                    requests == null ? 0 : requests.size(), orderId, customerEntity.email());
+            CompleteOrderView response = orderService.addOrderItemsBatch(customerEntity.email(), orderId, requests);
+            return ResponseEntity.ok(response);
+        } catch (UserDoesNotExistException | UsernameNotFoundException e) {
+            log.error("Error adding order items: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid order items batch: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            log.warn("Order {} is not open for new items: {}", orderId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Concurrent change to order: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Order was changed by another request, please retry");
+        } catch (Exception e) {
+            log.error("Unexpected error adding order items", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to add order items");
+        }
+    }
+
+    // ---------------- Checkout (order, items and payment in one call) ----------------
+    @PostMapping("/checkout")
+    public ResponseEntity<?> checkout(
+            @RequestHeader("Idempotency-Key") String idempotencyKey,
+            @RequestBody CheckoutRequest request) {
+        UserSnapshot customerEntity = authenticatedCustomer.customer();
+        if (customerEntity == null) {
+            throw new RuntimeException("Missing or invalid Authorization header");
+        }
+        try {
+            log.info("Checkout for customer {} with key {}", customerEntity.email(), idempotencyKey);
+            CheckoutResponse response = orderService.checkout(customerEntity.email(), idempotencyKey, request);
+            return ResponseEntity.ok(response);
+        } catch (DataIntegrityViolationException e) {
+            if (!isIdempotencyKeyCollision(e)) {
+                log.error("Checkout rejected by a data constraint", e);
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Checkout conflicts with existing data");
+            }
+            // a concurrent request with the same key won the insert; answer with its order
+            log.info("Checkout key {} already used by a concurrent request", idempotencyKey);
+            try {
+                return ResponseEntity.ok(orderService.findCheckout(customerEntity.email(), idempotencyKey));
+            } catch (UserDoesNotExistException notFound) {
+                // the other request rolled back after taking the key; nothing to replay yet
+                log.warn("Checkout key {} collided but no order holds it", idempotencyKey, e);
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Checkout with this key is still in progress, please retry");
+            }
+        } catch (UserDoesNotExistException | UsernameNotFoundException e) {
+            log.error("Error during checkout: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.error("Checkout validation failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Unexpected error during checkout", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to checkout");
+        }
+    }
 
     // ---------------- Update order item ----------------
     @PutMapping("/update-item/{orderItemId}")
     public ResponseEntity<?> updateOrderItem(
             @PathVariable Integer orderItemId,
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestBody OrderItemsRequest request) {
-        CustomerEntity customerEntity = getUserFromToken(authHeader);
+        UserSnapshot customerEntity = authenticatedCustomer.customer();
         if (customerEntity == null) {
             throw new RuntimeException("Missing or invalid Authorization header");
         }
         try {
-            log.info("Updating order item {} for customer {}", orderItemId, customerEntity.getEmail());
-            CompleteOrderView response = orderService.updateOrderItem(customerEntity.getEmail(), orderItemId, request);
+            log.info("Updating order item {} for customer {}", orderItemId, customerEntity.email());
+            CompleteOrderView response = orderService.updateOrderItem(customerEntity.email(), orderItemId, request);
             return ResponseEntity.ok(response);
         } catch (UserDoesNotExistException | UsernameNotFoundException e) {
             log.error("Error updating order item: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Concurrent change to order: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Order was changed by another request, please retry");
         } catch (Exception e) {
             log.error("Unexpected error updating order item", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to update order item");
@@ -104,14 +174,14 @@ public class OrderPlacementController {
 
     // ---------------- Delete order ----------------
     @DeleteMapping("/delete/{orderId}")
-    public ResponseEntity<?> deleteOrder(@PathVariable Integer orderId,  @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
-        CustomerEntity customerEntity = getUserFromToken(authHeader);
+    public ResponseEntity<?> deleteOrder(@PathVariable Integer orderId) {
+        UserSnapshot customerEntity = authenticatedCustomer.customer();
         if (customerEntity == null) {
             throw new RuntimeException("Missing or invalid Authorization header");
         }
         try {
-            log.info("Deleting order {} for customer {}", orderId, customerEntity.getEmail());
-            orderService.deleteOrder(customerEntity.getEmail(), orderId);
+            log.info("Deleting order {} for customer {}", orderId, customerEntity.email());
+            orderService.deleteOrder(customerEntity.email(), orderId);
             return ResponseEntity.ok("Order deleted successfully");
         } catch (UserDoesNotExistException | UsernameNotFoundException e) {
             log.error("Error deleting order: {}", e.getMessage(), e);
@@ -126,15 +196,14 @@ public class OrderPlacementController {
     @PostMapping("/payment/{orderId}")
     public ResponseEntity<?> makePayment(
             @PathVariable Integer orderId,
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestBody PaymentRequest request) {
-        CustomerEntity customerEntity = getUserFromToken(authHeader);
+        UserSnapshot customerEntity = authenticatedCustomer.customer();
         if (customerEntity == null) {
             throw new RuntimeException("Missing or invalid Authorization header");
         }
         try {
-            log.info("Processing payment for order {} for customer {}", orderId, customerEntity.getEmail());
-            PaymentResponse response = orderService.makePayment(customerEntity.getEmail(), orderId, request);
+            log.info("Processing payment for order {} for customer {}", orderId, customerEntity.email());
+            PaymentResponse response = orderService.makePayment(customerEntity.email(), orderId, request);
             return ResponseEntity.ok(response);
         } catch (UserDoesNotExistException | UsernameNotFoundException e) {
             log.error("Error processing payment: {}", e.getMessage(), e);
@@ -142,9 +211,21 @@ public class OrderPlacementController {
         } catch (IllegalArgumentException | IllegalStateException e) {
             log.error("Payment validation failed: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Concurrent change to order: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Order was changed by another request, please retry");
         } catch (Exception e) {
             log.error("Unexpected error processing payment", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to process payment");
         }
     }
+
+    // only the (customer_id, idempotency_key) unique key means "same checkout again"; any other
+    // violation is a real failure and must not be answered with a replay
+    private static boolean isIdempotencyKeyCollision(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains(Order.IDEMPOTENCY_KEY_CONSTRAINT)) return true;
+        }
+        return false;
+    }
 }
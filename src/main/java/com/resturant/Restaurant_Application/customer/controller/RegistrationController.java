@@ -1,12 +1,12 @@
 package com.resturant.Restaurant_Application.customer.controller;
 
+import com.resturant.Restaurant_Application.ExceptionHandlers.ServiceBusyException;
 import com.resturant.Restaurant_Application.ExceptionHandlers.UserDoesNotExistException;
-import com.resturant.Restaurant_Application.customer.entity.CustomerEntity;
 import com.resturant.Restaurant_Application.customer.entity.dtos.*;
-import com.resturant.Restaurant_Application.customer.security.TokenService;
+import com.resturant.Restaurant_Application.customer.security.AuthenticatedCustomer;
+import com.resturant.Restaurant_Application.customer.security.UserSnapshot;
 import com.resturant.Restaurant_Application.customer.service.CustomerCreationService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -16,22 +16,15 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/v1/customer")
 public class RegistrationController {
     private final CustomerCreationService service;
-    private final TokenService tokenService;
-
-    private CustomerEntity getUserFromToken(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new RuntimeException("Missing or invalid Authorization header");
-        }
-        String token = authHeader.substring(7);
-        String email = tokenService.getEmailFromAccessToken(token);
-        return service.getUserByEmail(email);
-    }
+    private final AuthenticatedCustomer authenticatedCustomer;
 
     @PostMapping("/register")
     public ResponseEntity<?> addCustomer(@RequestBody CustomerCreationRequest request){
         try {
             CustomerCreationResponse response = service.createCustomer(request);
             return ResponseEntity.ok(response);
+        } catch (ServiceBusyException e) {
+            throw e; // 503 with Retry-After, from GlobalExceptionHandler
         }catch (Exception e){
             return ResponseEntity.badRequest().build();
         }
@@ -42,17 +35,21 @@ public class RegistrationController {
         try {
             LoginResponse response = service.customerLogin(request);
             return ResponseEntity.ok(response);
+        } catch (ServiceBusyException e) {
+            throw e; // 503 with Retry-After, from GlobalExceptionHandler
         }catch (Exception e){
             return ResponseEntity.badRequest().build();
         }
     }
 
     @PutMapping("/update/password")
-    public ResponseEntity<?> updatePassword(@RequestBody PasswordUpdateRequest request, @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader){
-        CustomerEntity user = getUserFromToken(authHeader);
+    public ResponseEntity<?> updatePassword(@RequestBody PasswordUpdateRequest request){
+        UserSnapshot user = authenticatedCustomer.customer();
         try {
-            PasswordUpdateResponse response = service.passwordUpdate(request, user.getPassword());
+            PasswordUpdateResponse response = service.passwordUpdate(request, user.email());
             return ResponseEntity.ok(response);
+        } catch (ServiceBusyException e) {
+            throw e; // 503 with Retry-After, from GlobalExceptionHandler
         } catch (UserDoesNotExistException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -61,10 +58,10 @@ public class RegistrationController {
     }
 
     @PutMapping("/update/details")
-    public ResponseEntity<?> userUpdate(CustomerUpdateRequest request, @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader){
-        CustomerEntity user = getUserFromToken(authHeader);
+    public ResponseEntity<?> userUpdate(CustomerUpdateRequest request){
+        UserSnapshot user = authenticatedCustomer.customer();
         try {
-            CustomerUpdateResponse response = service.customerUpdate(request, user.getEmail());
+            CustomerUpdateResponse response = service.customerUpdate(request, user.email());
             return ResponseEntity.ok(response);
         } catch (UserDoesNotExistException e) {
             return ResponseEntity.badRequest().build();
@@ -1,24 +1,45 @@
 package com.resturant.Restaurant_Application.customer.controller;
 
+import com.resturant.Restaurant_Application.customer.entity.Enum.Status;
 import com.resturant.Restaurant_Application.customer.entity.Order;
+import com.resturant.Restaurant_Application.customer.entity.dtos.KeysetPage;
 import com.resturant.Restaurant_Application.restaurant.InRestaurantOrders;
 import com.resturant.Restaurant_Application.restaurant.InRestaurantPayments;
+import com.resturant.Restaurant_Application.restaurant.admin.repo.AllOrdersReportRepo;
+import com.resturant.Restaurant_Application.restaurant.admin.repo.SalesReportRepo;
+import com.resturant.Restaurant_Application.restaurant.admin.service.OrdersReport;
+import com.resturant.Restaurant_Application.restaurant.admin.service.ReportFormat;
 import com.resturant.Restaurant_Application.restaurant.admin.service.ReportGenService;
+import com.resturant.Restaurant_Application.restaurant.admin.service.ReportJob;
+import com.resturant.Restaurant_Application.restaurant.admin.service.ReportJobService;
+import com.resturant.Restaurant_Application.restaurant.admin.service.ReportJsonWriter;
+import com.resturant.Restaurant_Application.restaurant.admin.service.SalesBucket;
+import com.resturant.Restaurant_Application.restaurant.admin.service.SalesRollupService;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/admin/reports")
@@ -27,20 +48,25 @@ import java.util.stream.Collectors;
 public class ReportController {
 
     private final ReportGenService reportGenService;
+    private final SalesRollupService salesRollupService;
+    private final ReportJobService reportJobService;
+    private final ReportJsonWriter reportJsonWriter;
     private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
 
     /* ===================== EXCEL REPORT ===================== */
+    // from/to are inclusive and optional; rows are spilled to disk while the workbook is built
     @GetMapping("/sales/excel")
-    public void downloadSalesExcel(HttpServletResponse response) {
+    public void downloadSalesExcel(@RequestParam(required = false) String from,
+                                   @RequestParam(required = false) String to,
+                                   HttpServletResponse response) {
         try {
-            logger.info("Generating Excel sales report...");
+            LocalDate start = (from != null) ? LocalDate.parse(from) : null;
+            LocalDate end = (to != null) ? LocalDate.parse(to) : null;
+            logger.info("Generating Excel sales report from {} to {}...", start, end);
             response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
             response.setHeader("Content-Disposition", "attachment; filename=sales-report.xlsx");
 
-            var orders = reportGenService.fetchAllRestaurantOrders();
-            var workbook = reportGenService.generateSalesExcelReport(orders);
-            workbook.write(response.getOutputStream());
-            workbook.close();
+            reportGenService.writeSalesExcel(start, end, response.getOutputStream());
 
             logger.info("Excel report streamed successfully.");
         } catch (Exception e) {
@@ -49,15 +75,20 @@ public class ReportController {
     }
 
     /* ===================== CSV REPORT ===================== */
+    // streamed straight from the database; from/to are inclusive and optional
     @GetMapping("/sales/csv")
-    public void downloadSalesCsv(HttpServletResponse response) {
+    public void downloadSalesCsv(@RequestParam(required = false) String from,
+                                 @RequestParam(required = false) String to,
+                                 HttpServletResponse response) {
         try {
-            logger.info("Generating CSV sales report...");
+            LocalDate start = (from != null) ? LocalDate.parse(from) : null;
+            LocalDate end = (to != null) ? LocalDate.parse(to) : null;
+            logger.info("Generating CSV sales report from {} to {}...", start, end);
             response.setContentType("text/csv");
             response.setHeader("Content-Disposition", "attachment; filename=sales-report.csv");
 
-            var orders = reportGenService.fetchAllRestaurantOrders();
-            reportGenService.writeSalesCsv(orders, new OutputStreamWriter(response.getOutputStream()));
+            reportGenService.writeSalesCsv(start, end, new BufferedWriter(
+                    new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)));
 
             logger.info("CSV report streamed successfully.");
         } catch (Exception e) {
@@ -66,15 +97,19 @@ public class ReportController {
     }
 
     /* ===================== PDF REPORT ===================== */
+    // from/to are inclusive and optional; pages are written out as the table fills them
     @GetMapping("/sales/pdf")
-    public void downloadSalesPdf(HttpServletResponse response) {
+    public void downloadSalesPdf(@RequestParam(required = false) String from,
+                                 @RequestParam(required = false) String to,
+                                 HttpServletResponse response) {
         try {
-            logger.info("Generating PDF sales report...");
+            LocalDate start = (from != null) ? LocalDate.parse(from) : null;
+            LocalDate end = (to != null) ? LocalDate.parse(to) : null;
+            logger.info("Generating PDF sales report from {} to {}...", start, end);
             response.setContentType("application/pdf");
             response.setHeader("Content-Disposition", "attachment; filename=sales-report.pdf");
 
-            var orders = reportGenService.fetchAllRestaurantOrders();
-            reportGenService.writeSalesPdf(orders, response.getOutputStream());
+            reportGenService.writeSalesPdf(start, end, response.getOutputStream());
 
             logger.info("PDF report streamed successfully.");
         } catch (Exception e) {
@@ -82,14 +117,88 @@ public class ReportController {
         }
     }
 
+    /* ===================== REPORT JOBS ===================== */
+    // heavy exports: queue a job, poll it, then download the file once it is DONE
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitReportJob(@RequestParam ReportFormat format,
+                                             @RequestParam(required = false) String from,
+                                             @RequestParam(required = false) String to) {
+        try {
+            LocalDate start = (from != null) ? LocalDate.parse(from) : null;
+            LocalDate end = (to != null) ? LocalDate.parse(to) : null;
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportJobService.submit(format, start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Report queue is full, rejecting {} job", format);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Too many reports in progress, try again later"));
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getReportJob(@PathVariable String id) {
+        return reportJobService.find(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Report job not found")));
+    }
+
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<?> downloadReportJob(@PathVariable String id) throws IOException {
+        ReportJob job = reportJobService.find(id).orElse(null);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Report job not found"));
+        }
+        if (job.getStatus() != ReportJob.Status.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Report is " + job.getStatus()));
+        }
+
+        // opened before answering: the expiry sweep may delete the file at any moment, and an open
+        // stream keeps reading it after that, while a file gone before we got here is a 410
+        InputStream artifact;
+        try {
+            artifact = Files.newInputStream(job.getFile());
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.status(HttpStatus.GONE).body(Map.of("error", "Report has expired, submit it again"));
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getFormat().contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getFileName())
+                .body(new InputStreamResource(artifact));
+    }
+
     /* ===================== ALL ORDERS ===================== */
+    // newest first; dates are inclusive, every filter is optional
     @GetMapping("/all-orders")
-    public List<Map<String, Object>> getAllOrders(@RequestParam(required = false) String startDate,
-                                                  @RequestParam(required = false) String endDate) {
+    public KeysetPage<AllOrdersReportRepo.OrderReportRow> getAllOrders(@RequestParam(required = false) String startDate,
+                                                                       @RequestParam(required = false) String endDate,
+                                                                       @RequestParam(required = false) Status status,
+                                                                       @RequestParam(required = false) AllOrdersReportRepo.Type type,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(required = false) Integer size) {
+        AllOrdersReportRepo.Filter filter = allOrdersFilter(startDate, endDate, status, type);
+        logger.info("Fetching all orders {}", filter);
+        return reportGenService.getAllOrdersReport(filter, cursor, size);
+    }
+
+    // the whole filtered report as one JSON array, written as rows are read
+    @GetMapping(value = "/all-orders/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllOrders(@RequestParam(required = false) String startDate,
+                                                                 @RequestParam(required = false) String endDate,
+                                                                 @RequestParam(required = false) Status status,
+                                                                 @RequestParam(required = false) AllOrdersReportRepo.Type type) {
+        AllOrdersReportRepo.Filter filter = allOrdersFilter(startDate, endDate, status, type);
+        logger.info("Streaming all orders {}", filter);
+        StreamingResponseBody body = os -> reportGenService.writeAllOrdersJson(filter, os);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private static AllOrdersReportRepo.Filter allOrdersFilter(String startDate, String endDate,
+                                                              Status status, AllOrdersReportRepo.Type type) {
         LocalDate start = (startDate != null) ? LocalDate.parse(startDate) : null;
         LocalDate end = (endDate != null) ? LocalDate.parse(endDate) : null;
-        logger.info("Fetching all orders from {} to {}", start, end);
-        return reportGenService.getAllOrdersReport();
+        return new AllOrdersReportRepo.Filter(start, end, status, type);
     }
 
     /* ===================== PAYMENT ALLOCATION ===================== */
@@ -124,97 +233,22 @@ public class ReportController {
     }
 
     /* ===================== WEEKLY SALES ===================== */
-    @GetMapping("/sales/weekly")
-    public Map<String, Object> getWeeklySales(@RequestParam(required = false) String date) {
+    @GetMapping(value = "/sales/weekly", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getWeeklySales(@RequestParam(required = false) String date, HttpServletResponse response) throws IOException {
         LocalDate targetDate = (date != null) ? LocalDate.parse(date) : LocalDate.now();
+        OrdersReport report = reportGenService.weeklyOrdersReport(targetDate);
 
-        // Customer Orders DTOs
-        List<Map<String, Object>> customerOrders = reportGenService.getCustomerOrdersByWeek(targetDate)
-                .stream()
-                .map(order -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("orderId", order.getId());
-                    map.put("customerName", order.getCustomer().getName());
-                    map.put("date", order.getDate().toLocalDate());
-                    map.put("totalAmount", order.getTotalAmount());
-                    map.put("items", order.getOrderItems().stream()
-                            .map(oi -> oi.getMenu().getFoodName() + " x" + oi.getQuantity() +
-                                    (oi.getToppings().isEmpty() ? "" : " (Toppings: " +
-                                            oi.getToppings().stream().map(t -> t.getName()).collect(Collectors.joining(", ")) + ")"))
-                            .collect(Collectors.joining("; ")));
-                    map.put("status", order.getStatus().name());
-                    return map;
-                })
-                .collect(Collectors.toList());
-
-        // Restaurant Orders DTOs
-        List<Map<String, Object>> restaurantOrders = reportGenService.getRestaurantOrdersByWeek(targetDate)
-                .stream()
-                .map(order -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("orderId", order.getId());
-                    map.put("date", order.getOrderDate());
-                    map.put("menuItem", order.getMenu().getFoodName());
-                    map.put("toppings", order.getToppings().stream().map(t -> t.getName()).collect(Collectors.joining(", ")));
-                    map.put("quantity", order.getQuantity());
-                    map.put("totalAmount", order.getPrice());
-                    map.put("status", order.getOrderStatus().name());
-                    return map;
-                })
-                .collect(Collectors.toList());
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("customerOrders", customerOrders);
-        response.put("restaurantOrders", restaurantOrders);
-
-        return response;
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        reportJsonWriter.writeOrdersReport(report, response.getOutputStream());
     }
 
     /* ===================== MONTHLY SALES ===================== */
-    @GetMapping("/sales/monthly")
-    public Map<String, Object> getMonthlySales(@RequestParam int month, @RequestParam int year) {
-        // Customer Orders DTOs
-        List<Map<String, Object>> customerOrders = reportGenService.fetchAllCustomerOrders()
-                .stream()
-                .filter(o -> o.getDate().getMonthValue() == month && o.getDate().getYear() == year)
-                .map(order -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("orderId", order.getId());
-                    map.put("customerName", order.getCustomer().getName());
-                    map.put("date", order.getDate().toLocalDate());
-                    map.put("totalAmount", order.getTotalAmount());
-                    map.put("items", order.getOrderItems().stream()
-                            .map(oi -> oi.getMenu().getFoodName() + " x" + oi.getQuantity() +
-                                    (oi.getToppings().isEmpty() ? "" : " (Toppings: " +
-                                            oi.getToppings().stream().map(t -> t.getName()).collect(Collectors.joining(", ")) + ")"))
-                            .collect(Collectors.joining("; ")));
-                    map.put("status", order.getStatus().name());
-                    return map;
-                })
-                .collect(Collectors.toList());
-
-        // Restaurant Orders DTOs
-        List<Map<String, Object>> restaurantOrders = reportGenService.fetchAllRestaurantOrders()
-                .stream()
-                .filter(o -> o.getOrderDate().getMonthValue() == month && o.getOrderDate().getYear() == year)
-                .map(order -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("orderId", order.getId());
-                    map.put("date", order.getOrderDate());
-                    map.put("menuItem", order.getMenu().getFoodName());
-                    map.put("toppings", order.getToppings().stream().map(t -> t.getName()).collect(Collectors.joining(", ")));
-                    map.put("quantity", order.getQuantity());
-                    map.put("totalAmount", order.getPrice());
-                    map.put("status", order.getOrderStatus().name());
-                    return map;
-                })
-                .collect(Collectors.toList());
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("customerOrders", customerOrders);
-        response.put("restaurantOrders", restaurantOrders);
-
-        return response;
+    @GetMapping(value = "/sales/monthly", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getMonthlySales(@RequestParam int month, @RequestParam int year, HttpServletResponse response) throws IOException {
+        OrdersReport report = reportGenService.monthlyOrdersReport(month, year);
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        reportJsonWriter.writeOrdersReport(report, response.getOutputStream());
     }
 
     /* ===================== WEEKLY / MONTHLY TRENDS ===================== */
@@ -235,4 +269,32 @@ public class ReportController {
         return trendData;
     }
 
+    /* ===================== MENU PERFORMANCE ===================== */
+    @GetMapping("/menu-performance")
+    public List<SalesReportRepo.MenuPerformanceRow> menuPerformance(@RequestParam String from, @RequestParam String to) {
+        return reportGenService.getMenuPerformance(LocalDate.parse(from), LocalDate.parse(to));
+    }
+
+    /* ===================== SALES ROLLUP ===================== */
+    // recomputes the pre-aggregated daily sales for a range, e.g. after correcting old orders
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<?> rebuildRollup(@RequestParam String from, @RequestParam String to) {
+        LocalDate start = LocalDate.parse(from);
+        LocalDate end = LocalDate.parse(to);
+        logger.info("Rebuilding daily sales rollup from {} to {}", start, end);
+        salesRollupService.rebuild(start, end);
+        return ResponseEntity.ok(Map.of("rebuiltFrom", start, "rebuiltTo", end));
+    }
+
+    // any range, bucketed by DAY, WEEK or MONTH; read from the daily rollup, so cost follows the range, not the table
+    @GetMapping("/sales/trend")
+    public List<SalesBucket> salesTrend(@RequestParam String from,
+                                        @RequestParam String to,
+                                        @RequestParam(defaultValue = "DAY") ReportGenService.Granularity granularity) {
+        LocalDate start = LocalDate.parse(from);
+        LocalDate end = LocalDate.parse(to);
+        logger.info("Sales trend from {} to {} by {}", start, end, granularity);
+        return reportGenService.aggregateSales(start, end, granularity);
+    }
+
 }
@@ -19,9 +19,16 @@ import java.util.List;
 @NoArgsConstructor
 @Entity
 @Builder
-@Table(name = "order_table")
+@Table(name = "order_table", uniqueConstraints = {
+        @UniqueConstraint(name = Order.IDEMPOTENCY_KEY_CONSTRAINT, columnNames = {"customer_id", "idempotency_key"})
+}, indexes = {
+        @Index(name = "idx_order_date_id", columnList = "order_date, id"),
+        @Index(name = "idx_order_customer_date", columnList = "customer_id, order_date")
+})
 public class Order {
 
+    public static final String IDEMPOTENCY_KEY_CONSTRAINT = "uk_order_customer_idempotency_key";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -38,6 +45,15 @@ public class Order {
     @Column(name = "total_amount", precision = 10, scale = 2, nullable = false)
     private BigDecimal totalAmount;
 
+    // bumped on every write; total updates are conditional on it so concurrent edits can't lose a line
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
+    // client-supplied key for one-shot checkout, null for orders built step by step
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
     @ManyToOne
     @JoinColumn(name = "customer_id")
     private CustomerEntity customer;
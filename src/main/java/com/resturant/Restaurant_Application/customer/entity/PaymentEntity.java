@@ -12,6 +12,9 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
+@Table(name = "payment_entity", indexes = {
+        @Index(name = "idx_payment_date_id", columnList = "payment_date, id")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 public class PaymentEntity {
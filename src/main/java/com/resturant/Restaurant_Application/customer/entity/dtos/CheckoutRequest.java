@@ -0,0 +1,19 @@
+package com.resturant.Restaurant_Application.customer.entity.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutRequest {
+    private List<OrderItemsRequest> items; // whole cart
+    private String paymentMethod;          // CASH, CARD, etc.
+    private BigDecimal amountPaid;         // must equal the cart total
+}
@@ -0,0 +1,16 @@
+package com.resturant.Restaurant_Application.customer.entity.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutResponse {
+    private CompleteOrderView order;
+    private PaymentResponse payment;
+    private boolean replayed; // true when the idempotency key had already been used
+}
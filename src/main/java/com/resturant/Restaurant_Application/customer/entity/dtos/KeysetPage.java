@@ -0,0 +1,22 @@
+package com.resturant.Restaurant_Application.customer.entity.dtos;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. nextCursor is null on the last page;
+ * otherwise pass it back as ?cursor= to get the next one.
+ */
+public record KeysetPage<T>(List<T> items, String nextCursor) {
+
+    /** Builds a page from a query that fetched up to size + 1 rows; the extra row only signals that more exist. */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= size) return new KeysetPage<>(rows, null);
+        List<T> items = rows.subList(0, size);
+        return new KeysetPage<>(items, cursorOf.apply(items.get(size - 1)).encode());
+    }
+
+    public <R> KeysetPage<R> map(Function<List<T>, List<R>> mapper) {
+        return new KeysetPage<>(mapper.apply(items), nextCursor);
+    }
+}
@@ -0,0 +1,39 @@
+package com.resturant.Restaurant_Application.customer.entity.dtos;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered newest first by (date, id), handed to clients as an opaque token.
+ * The next page starts strictly after this row, so pages stay stable while new rows are added.
+ * Lists keyed on id alone leave date null.
+ */
+public record PageCursor(LocalDateTime date, Integer id) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    public String encode() {
+        String raw = (date == null ? "" : date.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null or blank means "first page"
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf('|');
+            String day = raw.substring(0, split);
+            return new PageCursor(day.isEmpty() ? null : LocalDateTime.parse(day), Integer.valueOf(raw.substring(split + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    public static int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) return DEFAULT_SIZE;
+        return Math.min(requested, MAX_SIZE);
+    }
+}
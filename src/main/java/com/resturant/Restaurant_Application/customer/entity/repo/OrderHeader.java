@@ -0,0 +1,14 @@
+package com.resturant.Restaurant_Application.customer.entity.repo;
+
+import java.math.BigDecimal;
+
+/**
+ * The order_table row alone, without its items. Used by edits that only need the
+ * status and version of an order, so they don't pull every line through the EAGER collection.
+ */
+public interface OrderHeader {
+    Integer getId();
+    String getStatus();
+    BigDecimal getTotalAmount();
+    Long getVersion();
+}
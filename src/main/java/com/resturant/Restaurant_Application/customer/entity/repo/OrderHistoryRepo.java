@@ -0,0 +1,268 @@
+package com.resturant.Restaurant_Application.customer.entity.repo;
+
+import com.resturant.Restaurant_Application.customer.entity.Enum.Status;
+import com.resturant.Restaurant_Application.customer.entity.dtos.KeysetPage;
+import com.resturant.Restaurant_Application.customer.entity.dtos.PageCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Flat, read-only rows for order and payment history, read straight over JDBC.
+ * Nothing here goes through the persistence context: orders come back as plain rows,
+ * and the items of any number of orders (with their topping ids) come back from one joined query.
+ * Unbounded lists are read a keyset page at a time, newest first.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderHistoryRepo {
+
+    private static final String ORDER_SELECT =
+            "SELECT id, order_date, order_status, total_amount FROM order_table";
+    private static final String ORDER_COLUMNS = ORDER_SELECT + " WHERE customer_id = :customerId";
+
+    // keyset condition for lists ordered by (order_date DESC, id DESC): strictly after the cursor row
+    private static final String AFTER_CURSOR =
+            " AND (order_date < :cursorDate OR (order_date = :cursorDate AND id < :cursorId))";
+    private static final String NEWEST_FIRST = " ORDER BY order_date DESC, id DESC LIMIT :limit";
+
+    private static final String PAYMENT_SELECT =
+            "SELECT p.id, p.amount_paid, p.payment_method, p.payment_date, p.order_id " +
+            "FROM payment_entity p JOIN order_table o ON o.id = p.order_id WHERE 1 = 1";
+    private static final String PAYMENT_AFTER_CURSOR =
+            " AND (p.payment_date < :cursorDate OR (p.payment_date = :cursorDate AND p.id < :cursorId))";
+    private static final String PAYMENTS_NEWEST_FIRST = " ORDER BY p.payment_date DESC, p.id DESC LIMIT :limit";
+
+    // customers who have ordered, by id; the customer_id index answers the EXISTS
+    private static final String CUSTOMERS_WITH_ORDERS =
+            "SELECT c.id, c.name, c.email FROM customer c " +
+            "WHERE EXISTS (SELECT 1 FROM order_table o WHERE o.customer_id = c.id)";
+    private static final String CUSTOMER_AFTER_CURSOR = " AND c.id > :cursorId";
+    private static final String CUSTOMERS_BY_ID = " ORDER BY c.id LIMIT :limit";
+
+    // one aggregate row per customer, read through the customer_id index; no order rows leave the database
+    private static final String ORDER_SUMMARIES =
+            "SELECT customer_id, COUNT(*) AS order_count, MAX(order_date) AS last_order_date, " +
+            "SUM(total_amount) AS total_amount FROM order_table " +
+            "WHERE customer_id IN (:customerIds) GROUP BY customer_id";
+
+    // a customer's items newest first; the (customer_id, order_date) index drives the scan, order_items.order_id the join
+    private static final String CUSTOMER_ITEMS =
+            "SELECT oi.id, oi.order_id, oi.menu_id, oi.quantity, oi.price, o.order_date " +
+            "FROM order_table o JOIN order_items oi ON oi.order_id = o.id WHERE o.customer_id = :customerId";
+    private static final String CUSTOMER_ITEM_AFTER_CURSOR =
+            " AND (o.order_date < :cursorDate OR (o.order_date = :cursorDate AND oi.id < :cursorId))";
+    private static final String CUSTOMER_ITEMS_NEWEST_FIRST = " ORDER BY o.order_date DESC, oi.id DESC LIMIT :limit";
+
+    private static final String TOPPINGS_FOR_ITEMS =
+            "SELECT order_item_id, topping_id FROM order_item_toppings WHERE order_item_id IN (:itemIds)";
+
+    // one row per item and topping; items without toppings come back once with a null topping id
+    private static final String ITEMS_FOR_ORDERS =
+            "SELECT oi.order_id, oi.id, oi.menu_id, oi.quantity, oi.price, ot.topping_id " +
+            "FROM order_items oi LEFT JOIN order_item_toppings ot ON ot.order_item_id = oi.id " +
+            "WHERE oi.order_id IN (:orderIds) ORDER BY oi.order_id, oi.id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record OrderRow(Integer id, LocalDateTime date, Status status, BigDecimal totalAmount) {}
+
+    public record PaymentRow(Integer id, BigDecimal amountPaid, String paymentMethod, LocalDateTime paymentDate, Integer orderId) {}
+
+    public record CustomerRow(Integer id, String name, String email) {}
+
+    public record OrderSummaryRow(Integer customerId, long orderCount, LocalDateTime lastOrderDate, BigDecimal totalAmount) {}
+
+    public record CustomerItemRow(Integer itemId, Integer orderId, Integer menuId, Integer quantity, BigDecimal price, LocalDateTime orderDate) {}
+
+    public record ItemRow(Integer orderId, Integer itemId, Integer menuId, Integer quantity, BigDecimal price, Integer toppingId) {}
+
+    private static final RowMapper<OrderRow> ORDER_ROW = (rs, i) -> {
+        Timestamp date = rs.getTimestamp("order_date");
+        String status = rs.getString("order_status");
+        return new OrderRow(
+                rs.getInt("id"),
+                date == null ? null : date.toLocalDateTime(),
+                status == null ? null : Status.valueOf(status),
+                rs.getBigDecimal("total_amount"));
+    };
+
+    private static final RowMapper<ItemRow> ITEM_ROW = (rs, i) -> new ItemRow(
+            rs.getInt("order_id"),
+            rs.getInt("id"),
+            rs.getObject("menu_id", Integer.class),
+            rs.getObject("quantity", Integer.class),
+            rs.getBigDecimal("price"),
+            rs.getObject("topping_id", Integer.class));
+
+    private static final RowMapper<CustomerItemRow> CUSTOMER_ITEM_ROW = (rs, i) -> new CustomerItemRow(
+            rs.getInt("id"),
+            rs.getInt("order_id"),
+            rs.getObject("menu_id", Integer.class),
+            rs.getObject("quantity", Integer.class),
+            rs.getBigDecimal("price"),
+            rs.getTimestamp("order_date").toLocalDateTime());
+
+    private static final RowMapper<PaymentRow> PAYMENT_ROW = (rs, i) -> {
+        Timestamp date = rs.getTimestamp("payment_date");
+        return new PaymentRow(
+                rs.getInt("id"),
+                rs.getBigDecimal("amount_paid"),
+                rs.getString("payment_method"),
+                date == null ? null : date.toLocalDateTime(),
+                rs.getInt("order_id"));
+    };
+
+    private static final RowMapper<CustomerRow> CUSTOMER_ROW = (rs, i) -> new CustomerRow(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getString("email"));
+
+    private static final RowMapper<OrderSummaryRow> ORDER_SUMMARY_ROW = (rs, i) -> {
+        Timestamp last = rs.getTimestamp("last_order_date");
+        return new OrderSummaryRow(
+                rs.getInt("customer_id"),
+                rs.getLong("order_count"),
+                last == null ? null : last.toLocalDateTime(),
+                rs.getBigDecimal("total_amount"));
+    };
+
+    /* ===================== ORDERS ===================== */
+
+    public List<OrderRow> findOrdersNewestFirst(Integer customerId) {
+        return jdbcTemplate.query(ORDER_COLUMNS + " ORDER BY order_date DESC, id DESC",
+                new MapSqlParameterSource("customerId", customerId), ORDER_ROW);
+    }
+
+    public List<OrderRow> findOrdersByStatus(Integer customerId, Status status) {
+        return jdbcTemplate.query(ORDER_COLUMNS + " AND order_status = :status ORDER BY id",
+                new MapSqlParameterSource("customerId", customerId).addValue("status", status.name()), ORDER_ROW);
+    }
+
+    // a half-open range rather than DATE(order_date), so an index on order_date can be used
+    public List<OrderRow> findOrdersOn(Integer customerId, LocalDate date) {
+        return jdbcTemplate.query(ORDER_COLUMNS + " AND order_date >= :from AND order_date < :to ORDER BY id",
+                new MapSqlParameterSource("customerId", customerId)
+                        .addValue("from", date.atStartOfDay())
+                        .addValue("to", date.plusDays(1).atStartOfDay()),
+                ORDER_ROW);
+    }
+
+    public Optional<OrderRow> findOrder(Integer customerId, Integer orderId) {
+        return jdbcTemplate.query(ORDER_COLUMNS + " AND id = :orderId",
+                        new MapSqlParameterSource("customerId", customerId).addValue("orderId", orderId), ORDER_ROW)
+                .stream().findFirst();
+    }
+
+    // order count, last order date and total per customer, one row each however long their history is
+    public Map<Integer, OrderSummaryRow> findOrderSummaries(List<Integer> customerIds) {
+        Map<Integer, OrderSummaryRow> summaries = new HashMap<>();
+        if (customerIds.isEmpty()) return summaries;
+        jdbcTemplate.query(ORDER_SUMMARIES, new MapSqlParameterSource("customerIds", customerIds), ORDER_SUMMARY_ROW)
+                .forEach(row -> summaries.put(row.customerId(), row));
+        return summaries;
+    }
+
+    public List<OrderRow> findOrdersByIds(List<Integer> orderIds) {
+        if (orderIds.isEmpty()) return List.of();
+        return jdbcTemplate.query(ORDER_SELECT + " WHERE id IN (:orderIds)",
+                new MapSqlParameterSource("orderIds", orderIds), ORDER_ROW);
+    }
+
+    /* ===================== KEYSET PAGES ===================== */
+
+    public KeysetPage<OrderRow> findOrdersPage(Integer customerId, PageCursor cursor, int size) {
+        MapSqlParameterSource params = pageParams(cursor, size).addValue("customerId", customerId);
+        String sql = ORDER_COLUMNS + (cursor == null ? "" : AFTER_CURSOR) + NEWEST_FIRST;
+        return KeysetPage.of(jdbcTemplate.query(sql, params, ORDER_ROW), size, row -> new PageCursor(row.date(), row.id()));
+    }
+
+    public KeysetPage<OrderRow> findAllOrdersPage(PageCursor cursor, int size) {
+        String sql = ORDER_SELECT + " WHERE 1 = 1" + (cursor == null ? "" : AFTER_CURSOR) + NEWEST_FIRST;
+        return KeysetPage.of(jdbcTemplate.query(sql, pageParams(cursor, size), ORDER_ROW), size,
+                row -> new PageCursor(row.date(), row.id()));
+    }
+
+    // keyed on customer id alone, so each customer is on exactly one page
+    public KeysetPage<CustomerRow> findCustomersWithOrdersPage(PageCursor cursor, int size) {
+        String sql = CUSTOMERS_WITH_ORDERS + (cursor == null ? "" : CUSTOMER_AFTER_CURSOR) + CUSTOMERS_BY_ID;
+        return KeysetPage.of(jdbcTemplate.query(sql, pageParams(cursor, size), CUSTOMER_ROW), size,
+                row -> new PageCursor(null, row.id()));
+    }
+
+    // customerId null means payments of every customer
+    public KeysetPage<PaymentRow> findPaymentsPage(Integer customerId, PageCursor cursor, int size) {
+        MapSqlParameterSource params = pageParams(cursor, size);
+        String sql = PAYMENT_SELECT;
+        if (customerId != null) {
+            sql += " AND o.customer_id = :customerId";
+            params.addValue("customerId", customerId);
+        }
+        sql += (cursor == null ? "" : PAYMENT_AFTER_CURSOR) + PAYMENTS_NEWEST_FIRST;
+        return KeysetPage.of(jdbcTemplate.query(sql, params, PAYMENT_ROW), size,
+                row -> new PageCursor(row.paymentDate(), row.id()));
+    }
+
+    // keyed on (order_date, item id): item ids are unique, so no item is skipped or repeated across pages
+    public KeysetPage<CustomerItemRow> findCustomerItemsPage(Integer customerId, PageCursor cursor, int size) {
+        MapSqlParameterSource params = pageParams(cursor, size).addValue("customerId", customerId);
+        String sql = CUSTOMER_ITEMS + (cursor == null ? "" : CUSTOMER_ITEM_AFTER_CURSOR) + CUSTOMER_ITEMS_NEWEST_FIRST;
+        return KeysetPage.of(jdbcTemplate.query(sql, params, CUSTOMER_ITEM_ROW), size,
+                row -> new PageCursor(row.orderDate(), row.itemId()));
+    }
+
+    // one row more than the page, so we know whether there is a next one
+    private static MapSqlParameterSource pageParams(PageCursor cursor, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", size + 1);
+        if (cursor != null) {
+            params.addValue("cursorDate", cursor.date()).addValue("cursorId", cursor.id());
+        }
+        return params;
+    }
+
+    /* ===================== PAYMENTS ===================== */
+
+    public List<PaymentRow> findPaymentsOn(Integer customerId, LocalDate date) {
+        return jdbcTemplate.query(PAYMENT_SELECT + " AND o.customer_id = :customerId" +
+                        " AND p.payment_date >= :from AND p.payment_date < :to ORDER BY p.payment_date DESC, p.id DESC",
+                new MapSqlParameterSource("customerId", customerId)
+                        .addValue("from", date.atStartOfDay())
+                        .addValue("to", date.plusDays(1).atStartOfDay()),
+                PAYMENT_ROW);
+    }
+
+    public Optional<PaymentRow> findPaymentForOrder(Integer customerId, Integer orderId) {
+        return jdbcTemplate.query(PAYMENT_SELECT + " AND o.customer_id = :customerId AND p.order_id = :orderId",
+                        new MapSqlParameterSource("customerId", customerId).addValue("orderId", orderId), PAYMENT_ROW)
+                .stream().findFirst();
+    }
+
+    /* ===================== ITEMS ===================== */
+
+    // topping ids per order item, streamed into the map row by row
+    public Map<Integer, List<Integer>> findToppingIds(List<Integer> itemIds) {
+        Map<Integer, List<Integer>> toppingIds = new HashMap<>();
+        if (itemIds.isEmpty()) return toppingIds;
+        jdbcTemplate.query(TOPPINGS_FOR_ITEMS, new MapSqlParameterSource("itemIds", itemIds), (RowCallbackHandler) rs ->
+                toppingIds.computeIfAbsent(rs.getInt("order_item_id"), id -> new ArrayList<>()).add(rs.getInt("topping_id")));
+        return toppingIds;
+    }
+
+    public List<ItemRow> findItems(List<Integer> orderIds) {
+        if (orderIds.isEmpty()) return List.of();
+        return jdbcTemplate.query(ITEMS_FOR_ORDERS, new MapSqlParameterSource("orderIds", orderIds), ITEM_ROW);
+    }
+}
@@ -0,0 +1,73 @@
+package com.resturant.Restaurant_Application.customer.entity.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC batch inserts for order items. Hibernate cannot batch inserts of IDENTITY-keyed entities,
+ * so multi-line carts go through here: one batch for the items, one for their toppings.
+ * Runs inside the caller's JPA transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderItemsBatchRepo {
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO order_items (order_id, menu_id, quantity, price) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_TOPPING =
+            "INSERT INTO order_item_toppings (order_item_id, topping_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record NewItem(Integer menuId, List<Integer> toppingIds, int quantity, BigDecimal price) {}
+
+    // returns the generated order item ids, in the same order as the input
+    public List<Integer> insertAll(Integer orderId, List<NewItem> items) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_ITEM, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        NewItem item = items.get(i);
+                        ps.setInt(1, orderId);
+                        ps.setInt(2, item.menuId());
+                        ps.setInt(3, item.quantity());
+                        ps.setBigDecimal(4, item.price());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return items.size();
+                    }
+                },
+                keys);
+
+        List<Integer> ids = keys.getKeyList().stream()
+                .map(row -> ((Number) row.values().iterator().next()).intValue())
+                .toList();
+
+        List<Object[]> toppingRows = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            for (Integer toppingId : items.get(i).toppingIds()) {
+                toppingRows.add(new Object[]{ids.get(i), toppingId});
+            }
+        }
+        if (!toppingRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TOPPING, toppingRows);
+        }
+
+        return ids;
+    }
+}
@@ -6,7 +6,9 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,14 +43,49 @@ public interface OrderRepo extends JpaRepository<Order, Integer> {
     List<Order> findByCustomerIdAndOrderDate(@Param("customerId") Integer customerId,
                                              @Param("orderDate") LocalDate orderDate);
 
-    // Delete all orders that have no items
+    // Status, total and version of an order without loading its items
+    @Query(value = "SELECT id AS id, order_status AS status, total_amount AS totalAmount, version AS version " +
+            "FROM order_table WHERE id = :orderId", nativeQuery = true)
+    Optional<OrderHeader> findHeaderById(@Param("orderId") Integer orderId);
+
+    // Same, only when the order belongs to the customer
+    @Query(value = "SELECT id AS id, order_status AS status, total_amount AS totalAmount, version AS version " +
+            "FROM order_table WHERE id = :orderId AND customer_id = :customerId", nativeQuery = true)
+    Optional<OrderHeader> findHeaderByIdAndCustomerId(@Param("orderId") Integer orderId,
+                                                      @Param("customerId") Integer customerId);
+
+    // Apply a line change to the total, only if nobody else changed the order since it was read
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE order_table SET total_amount = total_amount + :delta, version = version + 1 " +
+            "WHERE id = :orderId AND version = :version", nativeQuery = true)
+    int applyTotalDelta(@Param("orderId") Integer orderId,
+                        @Param("delta") BigDecimal delta,
+                        @Param("version") Long version);
+
+    // Order created by a one-shot checkout with this idempotency key
+    @Query(value = "SELECT * FROM order_table WHERE customer_id = :customerId AND idempotency_key = :key", nativeQuery = true)
+    Optional<Order> findByCustomerIdAndIdempotencyKey(@Param("customerId") Integer customerId,
+                                                      @Param("key") String key);
+
+    // Oldest pending orders with no items, created before the cutoff (one reaper chunk)
+    @Query(value = "SELECT o.id FROM order_table o WHERE o.order_status = 'PENDING' AND o.order_date < :cutoff " +
+            "AND NOT EXISTS (SELECT 1 FROM order_items i WHERE i.order_id = o.id) ORDER BY o.id LIMIT :limit", nativeQuery = true)
+    List<Integer> findEmptyPendingOrderIdsBefore(@Param("cutoff") LocalDateTime cutoff,
+                                                 @Param("limit") int limit);
+
+    // Delete the given orders, re-checking they are still empty in case items were added meanwhile
     @Modifying
-    @Query(value = "DELETE FROM order_table WHERE id NOT IN (SELECT DISTINCT order_id FROM order_items)", nativeQuery = true)
-    void deleteOrdersWithoutItems();
+    @Query(value = "DELETE FROM order_table WHERE id IN (:ids) AND order_status = 'PENDING' " +
+            "AND NOT EXISTS (SELECT 1 FROM order_items i WHERE i.order_id = order_table.id)", nativeQuery = true)
+    int deleteEmptyPendingOrders(@Param("ids") List<Integer> ids);
 
     // ------------------- Admin / General Queries -------------------
 
     // Get all orders, no customer restriction, ordered by date
+    // half-open [start, end) on order_date, so it is a range scan on idx_order_date_id
+    @Query(value = "SELECT * FROM order_table WHERE order_date >= :start AND order_date < :end ORDER BY order_date, id", nativeQuery = true)
+    List<Order> findPlacedBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
     @Query(value = "SELECT * FROM order_table ORDER BY order_date DESC", nativeQuery = true)
     List<Order> findAllOrdersOrderByDateDesc();
 
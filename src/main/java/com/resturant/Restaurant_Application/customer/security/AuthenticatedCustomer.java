@@ -0,0 +1,71 @@
+package com.resturant.Restaurant_Application.customer.security;
+
+import com.resturant.Restaurant_Application.ExceptionHandlers.UnauthorizedException;
+import com.resturant.Restaurant_Application.customer.service.CustomerCreationService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/**
+ * The caller of the current request. JwtAuthenticationFilter binds the verified token's principal
+ * to the request once; controllers and services read it from here instead of re-parsing the
+ * Authorization header, and the customer is looked up at most once per request.
+ * State lives in request attributes, so this singleton is safe to use from any layer; outside
+ * a request (scheduled jobs, report workers) it simply has no caller.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthenticatedCustomer {
+
+    private static final String PRINCIPAL = AuthenticatedCustomer.class.getName() + ".principal";
+    private static final String CUSTOMER = AuthenticatedCustomer.class.getName() + ".customer";
+
+    private final CustomerCreationService customerService;
+
+    public static void bind(HttpServletRequest request, JwtPrincipal principal) {
+        request.setAttribute(PRINCIPAL, principal);
+    }
+
+    /** Same as {@link #bind(HttpServletRequest, JwtPrincipal)} when the filter already had to load the customer. */
+    public static void bind(HttpServletRequest request, JwtPrincipal principal, UserSnapshot customer) {
+        bind(request, principal);
+        request.setAttribute(CUSTOMER, customer);
+    }
+
+    public Optional<JwtPrincipal> principal() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) return Optional.empty();
+        return Optional.ofNullable((JwtPrincipal) attributes.getAttribute(PRINCIPAL, RequestAttributes.SCOPE_REQUEST));
+    }
+
+    public String email() {
+        return principal().map(JwtPrincipal::email)
+                .orElseThrow(() -> new UnauthorizedException("No authenticated customer"));
+    }
+
+    /** The calling customer, loaded on first use and reused for the rest of the request. */
+    public UserSnapshot customer() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) throw new UnauthorizedException("No authenticated customer");
+
+        UserSnapshot customer = (UserSnapshot) attributes.getAttribute(CUSTOMER, RequestAttributes.SCOPE_REQUEST);
+        if (customer == null) {
+            customer = customerService.getUserByEmail(email());
+            attributes.setAttribute(CUSTOMER, customer, RequestAttributes.SCOPE_REQUEST);
+        }
+        return customer;
+    }
+
+    /**
+     * For services that are handed an email: the request's customer when it is the same one,
+     * otherwise a regular lookup (another user, or no request at all).
+     */
+    public UserSnapshot customer(String email) {
+        boolean isCaller = principal().map(p -> p.email().equals(email)).orElse(false);
+        return isCaller ? customer() : customerService.getUserByEmail(email);
+    }
+}
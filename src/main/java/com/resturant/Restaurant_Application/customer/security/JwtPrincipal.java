@@ -0,0 +1,22 @@
+package com.resturant.Restaurant_Application.customer.security;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * What a verified access token says about its bearer. Built once per request from the
+ * token's claims and never changed afterwards. userId is the customer or admin id
+ * (depending on role); it is null on tokens issued before the claim existed.
+ */
+public record JwtPrincipal(String email, String role, Integer userId, Instant issuedAt, Instant expiresAt)
+        implements Principal {
+
+    public boolean isAdmin() {
+        return "ADMIN".equalsIgnoreCase(role);
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
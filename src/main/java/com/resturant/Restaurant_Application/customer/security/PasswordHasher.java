@@ -0,0 +1,154 @@
+package com.resturant.Restaurant_Application.customer.security;
+
+import com.resturant.Restaurant_Application.ExceptionHandlers.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing (BCrypt, deliberately slow) on a small dedicated pool instead of the
+ * request thread, so a burst of logins can use at most {@code security.password.hash-workers}
+ * cores and the order endpoints keep the rest. The queue is bounded: when it is full, or a hash
+ * is not done within {@code security.password.hash-timeout}, the caller gets a ServiceBusyException
+ * (503) rather than waiting behind everyone else. BCrypt cannot be interrupted, so a hash whose
+ * caller has already given up is dropped before it starts instead of occupying a worker.
+ *
+ * Metrics: security.password.hash (time per hash, by operation), security.password.hash.queue,
+ * security.password.hash.active, security.password.hash.rejected and security.password.rehash.
+ */
+@Component
+@Slf4j
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+    private final Counter rehashed;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${security.password.hash-workers:2}") int workers,
+                          @Value("${security.password.hash-queue-capacity:50}") int queueCapacity,
+                          @Value("${security.password.hash-timeout:PT3S}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hash-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("security.password.hash")
+                .description("Time spent hashing a password")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("security.password.hash")
+                .description("Time spent hashing a password")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("security.password.hash.rejected")
+                .description("Hash requests turned away because the pool was saturated")
+                .register(meterRegistry);
+        this.rehashed = Counter.builder("security.password.rehash")
+                .description("Stored hashes upgraded to the current encoding on login")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hash.queue", executor, e -> e.getQueue().size())
+                .description("Hash requests waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Workers currently hashing")
+                .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * A new hash for a password that just matched, when the stored one uses an older encoding
+     * or a lower work factor. Upgrades are optional work: while other hashes are queued this
+     * returns empty, and the next login tries again.
+     */
+    public Optional<String> rehash(String rawPassword, String encodedPassword) {
+        if (!passwordEncoder.upgradeEncoding(encodedPassword) || !executor.getQueue().isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            String hash = encode(rawPassword);
+            rehashed.increment();
+            return Optional.of(hash);
+        } catch (ServiceBusyException e) {
+            return Optional.empty();
+        }
+    }
+
+    private <T> T run(Callable<T> hash) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                // waited in the queue past the caller's timeout: nobody is left to use the result
+                if (System.nanoTime() - deadline >= 0) {
+                    throw new ServiceBusyException("Too many sign-in attempts right now, please retry shortly");
+                }
+                return hash.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing saturated: {} queued, {} active", executor.getQueue().size(), executor.getActiveCount());
+            throw new ServiceBusyException("Too many sign-in attempts right now, please retry shortly");
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // a queued hash is dropped; one already running finishes, since BCrypt ignores interrupts
+            future.cancel(false);
+            rejected.increment();
+            throw new ServiceBusyException("Too many sign-in attempts right now, please retry shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while hashing the password");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,17 +1,18 @@
 package com.resturant.Restaurant_Application.customer.security;
 
-import com.resturant.Restaurant_Application.customer.entity.CustomerEntity;
 import com.resturant.Restaurant_Application.customer.service.CustomerCreationService;
-import com.resturant.Restaurant_Application.restaurant.admin.AdminEntity;
 import com.resturant.Restaurant_Application.restaurant.admin.AdminService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -23,15 +24,20 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
 
     private final TokenService tokenService;
+    private final boolean statelessAuth;
 
-    public SecurityConfig(TokenService tokenService) {
+    public SecurityConfig(TokenService tokenService,
+                          @Value("${security.jwt.stateless:true}") boolean statelessAuth) {
         this.tokenService = tokenService;
+        this.statelessAuth = statelessAuth;
     }
 
     // ===================== Security Filter Chain =====================
@@ -51,6 +57,7 @@ public class SecurityConfig {
                                 "/api/v1/customer/login",
                                 "/welcome"
                         ).permitAll()
+                        .requestMatchers("/management/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter(customerService, adminService),
@@ -62,12 +69,17 @@ public class SecurityConfig {
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter(CustomerCreationService customerService,
                                                            AdminService adminService) {
-        return new JwtAuthenticationFilter(tokenService, customerService, adminService);
+        return new JwtAuthenticationFilter(tokenService, customerService, adminService, statelessAuth);
     }
 
+    // new hashes are "{bcrypt}" at the configured strength; hashes stored before the prefix existed
+    // still match, and PasswordHasher re-hashes them (or weaker ones) on the next successful login
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
     }
 
     // ===================== JWT AUTHENTICATION FILTER =====================
@@ -76,13 +88,16 @@ public class SecurityConfig {
         private final TokenService tokenService;
         private final CustomerCreationService customerService;
         private final AdminService adminService;
+        private final boolean statelessAuth;
 
         public JwtAuthenticationFilter(TokenService tokenService,
                                        CustomerCreationService customerService,
-                                       AdminService adminService) {
+                                       AdminService adminService,
+                                       boolean statelessAuth) {
             this.tokenService = tokenService;
             this.customerService = customerService;
             this.adminService = adminService;
+            this.statelessAuth = statelessAuth;
         }
 
         @Override
@@ -92,25 +107,36 @@ public class SecurityConfig {
 
             String token = parseJwt(request);
 
-            if (token != null && tokenService.validateAccessToken(token)) {
-                String email = tokenService.getEmailFromAccessToken(token);
-                String role = tokenService.getRoleFromAccessToken(token); // "ADMIN" or "CUSTOMER"
+            // one signature check per request; an invalid token just leaves the request unauthenticated
+            JwtPrincipal principal = token == null ? null : tokenService.parseAccessToken(token).orElse(null);
+
+            if (principal != null) AuthenticatedCustomer.bind(request, principal);
+
+            if (principal != null && statelessAuth && principal.userId() != null) {
+                // role and id are signed claims: no user lookup needed
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        principal, null, List.of(new SimpleGrantedAuthority("ROLE_" + principal.role())));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            } else if (principal != null) {
+                // stateless mode off, or a token issued before the uid claim: load the user as before
+                String email = principal.email();
 
                 UserDetails userDetails;
 
-                if ("ADMIN".equalsIgnoreCase(role)) {
-                    AdminEntity admin = adminService.getUserByEmail(email);
+                if (principal.isAdmin()) {
+                    UserSnapshot admin = adminService.getUserByEmail(email);
                     userDetails = org.springframework.security.core.userdetails.User
-                            .withUsername(admin.getEmail())
-                            .password(admin.getPassword()) // must be BCrypt encoded
-                            .roles(admin.getRole().name())
+                            .withUsername(admin.email())
+                            .password(admin.passwordHash()) // must be BCrypt encoded
+                            .roles(admin.role().name())
                             .build();
                 } else {
-                    CustomerEntity customer = customerService.getUserByEmail(email);
+                    UserSnapshot customer = customerService.getUserByEmail(email);
+                    AuthenticatedCustomer.bind(request, principal, customer);
                     userDetails = org.springframework.security.core.userdetails.User
-                            .withUsername(customer.getEmail())
-                            .password(customer.getPassword()) // must be BCrypt encoded
-                            .roles(customer.getRole().name())
+                            .withUsername(customer.email())
+                            .password(customer.passwordHash()) // must be BCrypt encoded
+                            .roles(customer.role().name())
                             .build();
                 }
 
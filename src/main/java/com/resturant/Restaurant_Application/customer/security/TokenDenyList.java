@@ -0,0 +1,49 @@
+package com.resturant.Restaurant_Application.customer.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access tokens revoked before they expire, e.g. after a password or email change.
+ * Stateless authentication never looks at the database, so this is the only way to cut
+ * an outstanding token short. An entry only has to outlive the tokens it denies, so it is
+ * dropped once {@code jwt.access-expiration-ms} has passed. Kept in memory per instance.
+ */
+@Component
+public class TokenDenyList {
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Map<String, Instant> revokedAt = new ConcurrentHashMap<>();
+
+    public TokenDenyList(@Value("${security.jwt.deny-list.enabled:true}") boolean enabled,
+                         @Value("${jwt.access-expiration-ms}") long accessExpirationMs) {
+        this.enabled = enabled;
+        this.ttl = Duration.ofMillis(accessExpirationMs);
+    }
+
+    /** Denies every access token of this user issued up to now. */
+    public void revokeAll(String email) {
+        if (!enabled || email == null) return;
+
+        Instant now = Instant.now();
+        revokedAt.values().removeIf(at -> at.plus(ttl).isBefore(now));
+        // iat has whole-second precision, so the revocation is kept at that precision too
+        revokedAt.put(email, now.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    // a token from the revocation's own second may predate it, so it is denied too; one minted
+    // later in that second is caught as well, and its client simply signs in again
+    public boolean isDenied(JwtPrincipal principal) {
+        if (!enabled) return false;
+
+        Instant at = revokedAt.get(principal.email());
+        return at != null && (principal.issuedAt() == null || !principal.issuedAt().isAfter(at));
+    }
+}
@@ -2,6 +2,7 @@ package com.resturant.Restaurant_Application.customer.security;
 
 import com.resturant.Restaurant_Application.customer.entity.CustomerEntity;
 import com.resturant.Restaurant_Application.restaurant.admin.AdminEntity;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import io.jsonwebtoken.*;
@@ -28,31 +29,48 @@ public class TokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
     private final AdminRefreshTokenRepo adminRefreshTokenRepository;
+    private final TokenDenyList denyList;
 
     public TokenService(RefreshTokenRepository refreshTokenRepository,
-                        AdminRefreshTokenRepo adminRefreshTokenRepository) {
+                        AdminRefreshTokenRepo adminRefreshTokenRepository,
+                        TokenDenyList denyList) {
         this.refreshTokenRepository = refreshTokenRepository;
         this.adminRefreshTokenRepository = adminRefreshTokenRepository;
+        this.denyList = denyList;
+    }
+
+    // derived once from jwt.secret; the parser is immutable and thread-safe, so one instance serves every request
+    private SecretKey signingKey;
+    private JwtParser accessTokenParser;
+
+    @PostConstruct
+    void initSigningKey() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.accessTokenParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     // ===================== SIGNING KEY =====================
     public SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return signingKey;
     }
 
     // ===================== ACCESS TOKEN =====================
-    public String generateAccessToken(CustomerEntity user) {
-        return generateAccessToken(user.getEmail(), user.getRole().name());
+    // role and uid (customer or admin id) are signed claims, so requests can be authenticated without a lookup
+    public String generateAccessToken(UserSnapshot user) {
+        return generateAccessToken(user.email(), user.role().name(), user.id());
     }
 
-    public String generateAccessTokenForAdmin(AdminEntity admin) {
-        return generateAccessToken(admin.getEmail(), admin.getRole().name());
+    public String generateAccessTokenForAdmin(UserSnapshot admin) {
+        return generateAccessToken(admin.email(), admin.role().name(), admin.id());
     }
 
-    private String generateAccessToken(String email, String role) {
+    private String generateAccessToken(String email, String role, Integer userId) {
         return Jwts.builder()
                 .setSubject(email)
                 .claim("role", role)
+                .claim("uid", userId)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + accessExpirationMs))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -91,42 +109,44 @@ public class TokenService {
     }
 
     // ===================== VALIDATE TOKEN =====================
-    public boolean validateAccessToken(String token) {
+    /**
+     * Verifies the signature and expiry once and returns the token's claims as a principal,
+     * or empty when the token is malformed, tampered with, expired or revoked.
+     */
+    public Optional<JwtPrincipal> parseAccessToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException ex) {
-            return false;
+            Claims claims = accessTokenParser.parseClaimsJws(token).getBody();
+            JwtPrincipal principal = new JwtPrincipal(
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    claims.get("uid", Integer.class),
+                    claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                    claims.getExpiration() == null ? null : claims.getExpiration().toInstant());
+            return denyList.isDenied(principal) ? Optional.empty() : Optional.of(principal);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Optional.empty();
         }
     }
 
+    // every access token already handed out to this user stops working
+    public void revokeAccessTokens(String email) {
+        denyList.revokeAll(email);
+    }
+
+    public boolean validateAccessToken(String token) {
+        return parseAccessToken(token).isPresent();
+    }
+
     public String getEmailFromAccessToken(String token) {
-        try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getSubject();
-        } catch (JwtException ex) {
-            throw new RuntimeException("Invalid access token");
-        }
+        return parseAccessToken(token)
+                .map(JwtPrincipal::email)
+                .orElseThrow(() -> new RuntimeException("Invalid access token"));
     }
 
     public String getRoleFromAccessToken(String token) {
-        try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .get("role", String.class);
-        } catch (JwtException ex) {
-            throw new RuntimeException("Invalid access token");
-        }
+        return parseAccessToken(token)
+                .map(JwtPrincipal::role)
+                .orElseThrow(() -> new RuntimeException("Invalid access token"));
     }
 
     // ===================== TOKEN PAIR DTO =====================
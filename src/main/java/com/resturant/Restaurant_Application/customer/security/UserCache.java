@@ -0,0 +1,70 @@
+package com.resturant.Restaurant_Application.customer.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.resturant.Restaurant_Application.customer.entity.CustomerEntity;
+import com.resturant.Restaurant_Application.restaurant.admin.AdminEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Customers and admins by email, so the lookup at the top of nearly every service call
+ * does not go to MySQL each time. Size-bounded and expiring after {@code users.cache.ttl};
+ * hit, miss and eviction counts are published as cache.* metrics (users.customers, users.admins).
+ *
+ * Entries are immutable {@link UserSnapshot}s copied from the loaded entity, so nothing managed by
+ * the loading transaction is shared. Updates change the entity and call evict, which drops the
+ * entry right away and again once the transaction commits, so a concurrent reader cannot re-cache
+ * the pre-update row.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<String, UserSnapshot> customers;
+    private final Cache<String, UserSnapshot> admins;
+
+    public UserCache(MeterRegistry meterRegistry,
+                     @Value("${users.cache.max-size:10000}") long maxSize,
+                     @Value("${users.cache.ttl:PT5M}") Duration ttl) {
+        this.customers = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.admins = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, customers, "users.customers");
+        CaffeineCacheMetrics.monitor(meterRegistry, admins, "users.admins");
+    }
+
+    public UserSnapshot customer(String email, Function<String, CustomerEntity> loader) {
+        return customers.get(email, key -> UserSnapshot.of(loader.apply(key)));
+    }
+
+    public UserSnapshot admin(String email, Function<String, AdminEntity> loader) {
+        return admins.get(email, key -> UserSnapshot.of(loader.apply(key)));
+    }
+
+    public void evictCustomer(String email) {
+        evict(() -> customers.invalidate(email));
+    }
+
+    public void evictAdmin(String email) {
+        evict(() -> admins.invalidate(email));
+    }
+
+    private static void evict(Runnable invalidate) {
+        invalidate.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.resturant.Restaurant_Application.customer.security;
+
+import com.resturant.Restaurant_Application.customer.entity.CustomerEntity;
+import com.resturant.Restaurant_Application.customer.entity.Enum.Role;
+import com.resturant.Restaurant_Application.restaurant.admin.AdminEntity;
+
+/**
+ * What authentication and the per-request lookups need from a customer or admin, copied out of
+ * the entity so {@link UserCache} can share it between requests without sharing a managed entity.
+ * Code that changes a user loads the entity itself; code that needs an entity to link to (an
+ * order's customer) takes a reference by {@link #id()}.
+ */
+public record UserSnapshot(Integer id, String email, String name, Role role, String passwordHash) {
+
+    public static UserSnapshot of(CustomerEntity customer) {
+        return new UserSnapshot(customer.getId(), customer.getEmail(), customer.getName(),
+                customer.getRole(), customer.getPassword());
+    }
+
+    public static UserSnapshot of(AdminEntity admin) {
+        return new UserSnapshot(admin.getId(), admin.getEmail(), admin.getName(),
+                admin.getRole(), admin.getPassword());
+    }
+
+    // keeps the hash out of logs
+    @Override
+    public String toString() {
+        return "UserSnapshot[id=" + id + ", email=" + email + ", role=" + role + "]";
+    }
+}
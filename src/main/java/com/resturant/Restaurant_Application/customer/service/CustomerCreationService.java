@@ -4,11 +4,13 @@ import com.resturant.Restaurant_Application.ExceptionHandlers.UserDoesNotExistEx
 import com.resturant.Restaurant_Application.customer.entity.CustomerEntity;
 import com.resturant.Restaurant_Application.customer.entity.dtos.*;
 import com.resturant.Restaurant_Application.customer.entity.repo.CustomerRepo;
+import com.resturant.Restaurant_Application.customer.security.PasswordHasher;
 import com.resturant.Restaurant_Application.customer.security.TokenService;
+import com.resturant.Restaurant_Application.customer.security.UserCache;
+import com.resturant.Restaurant_Application.customer.security.UserSnapshot;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -18,8 +20,9 @@ import org.springframework.stereotype.Service;
 public class CustomerCreationService {
 
     private final CustomerRepo customerRepo;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final TokenService tokenService;
+    private final UserCache userCache;
     private final NotificationService notificationService; // Injected service
 
     // ----------------- CREATE CUSTOMER -----------------
@@ -28,7 +31,7 @@ public class CustomerCreationService {
         customer.setName(request.getName());
         customer.setPhoneNumber(request.getPhoneNumber());
         customer.setEmail(request.getEmail());
-        customer.setPassword(passwordEncoder.encode(request.getPassword()));
+        customer.setPassword(passwordHasher.encode(request.getPassword()));
 
         customerRepo.save(customer);
 
@@ -54,7 +57,22 @@ public class CustomerCreationService {
 
     // ----------------- VERIFY PASSWORD -----------------
     public boolean isPasswordValid(CustomerEntity user, String rawPassword) {
-        return passwordEncoder.matches(rawPassword, user.getPassword());
+        return passwordHasher.matches(rawPassword, user.getPassword());
+    }
+
+    public boolean isPasswordValid(UserSnapshot user, String rawPassword) {
+        return passwordHasher.matches(rawPassword, user.passwordHash());
+    }
+
+    // a successful login is the only time the raw password is known, so stored hashes from an
+    // older encoding or a lower work factor are replaced then
+    private void upgradePasswordHash(UserSnapshot cached, String rawPassword) {
+        passwordHasher.rehash(rawPassword, cached.passwordHash()).ifPresent(hash -> {
+            CustomerEntity user = loadByEmail(cached.email());
+            user.setPassword(hash);
+            customerRepo.save(user);
+            userCache.evictCustomer(user.getEmail());
+        });
     }
 
     // ----------------- GET CUSTOMER -----------------
@@ -63,7 +81,13 @@ public class CustomerCreationService {
                 .orElseThrow(() -> new UserDoesNotExistException("Customer not found"));
     }
 
-    public CustomerEntity getUserByEmail(String email) {
+    // served from the user cache as an immutable snapshot; load the entity to change the customer
+    public UserSnapshot getUserByEmail(String email) {
+        return userCache.customer(email, this::loadByEmail);
+    }
+
+    // a fresh, managed copy for the methods that change the customer
+    private CustomerEntity loadByEmail(String email) {
         return customerRepo.findByEmail(email)
                 .orElseThrow(() -> new UserDoesNotExistException("Customer not found"));
     }
@@ -77,22 +101,23 @@ public class CustomerCreationService {
             throw new UserDoesNotExistException("Please enter your credentials");
         }
 
-        CustomerEntity customer = getUserByEmail(loginRequest.getEmail());
+        UserSnapshot customer = getUserByEmail(loginRequest.getEmail());
 
         if (!isPasswordValid(customer, loginRequest.getPassword())) {
             log.warn("Login failed: incorrect password for user {}", loginRequest.getEmail());
             throw new UserDoesNotExistException("Password doesn't match");
         }
+        upgradePasswordHash(customer, loginRequest.getPassword());
 
         String accessToken = tokenService.generateAccessToken(customer);
-        String refreshToken = tokenService.generateRefreshToken(customer).getToken();
+        String refreshToken = tokenService.generateRefreshToken(customerRepo.getReferenceById(customer.id())).getToken();
 
-        log.info("Customer logged in successfully: {}", customer.getEmail());
+        log.info("Customer logged in successfully: {}", customer.email());
 
         // Send notification to admin
         notificationService.createNotification(
                 "Customer Logged In",
-                "Customer " + customer.getName() + " (" + customer.getEmail() + ") has logged in."
+                "Customer " + customer.name() + " (" + customer.email() + ") has logged in."
         );
 
         return LoginResponse.builder()
@@ -104,15 +129,17 @@ public class CustomerCreationService {
     // ----------------- UPDATE PASSWORD -----------------
     public PasswordUpdateResponse passwordUpdate(PasswordUpdateRequest request, String email) {
 
-        CustomerEntity customer = getUserByEmail(email);
+        CustomerEntity customer = loadByEmail(email);
 
         if (!isPasswordValid(customer, request.getOldPassword())) {
             log.warn("Password update failed: incorrect old password for user {}", email);
             throw new UserDoesNotExistException("Old password doesn't match");
         }
 
-        customer.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        customer.setPassword(passwordHasher.encode(request.getNewPassword()));
         customerRepo.save(customer);
+        userCache.evictCustomer(email);
+        tokenService.revokeAccessTokens(email);
 
         log.info("Password updated successfully for user {}", email);
 
@@ -130,7 +157,7 @@ public class CustomerCreationService {
     // ----------------- UPDATE CUSTOMER DETAILS -----------------
     public CustomerUpdateResponse customerUpdate(CustomerUpdateRequest request, String email) {
 
-        CustomerEntity customer = getUserByEmail(email);
+        CustomerEntity customer = loadByEmail(email);
 
         // Update only non-null and non-blank fields
         customer.setName((request.getName() != null && !request.getName().isBlank())
@@ -143,6 +170,10 @@ public class CustomerCreationService {
                 ? request.getEmail() : customer.getEmail());
 
         customerRepo.save(customer);
+        userCache.evictCustomer(email);
+        userCache.evictCustomer(customer.getEmail());
+        // tokens carry the email as their subject; the old ones must not outlive the change
+        if (!customer.getEmail().equals(email)) tokenService.revokeAccessTokens(email);
 
         log.info("Customer updated successfully: {}", customer.getEmail());
 
@@ -0,0 +1,88 @@
+package com.resturant.Restaurant_Application.customer.service;
+
+import com.resturant.Restaurant_Application.customer.entity.repo.OrderRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes pending orders that never got any items, off the request path.
+ * Only orders older than {@code orders.reaper.min-age} are touched, so a customer still
+ * filling a fresh order never loses it. Work is done in small chunks, each in its own
+ * transaction, and a run stops once it has used up {@code orders.reaper.max-run-ms}.
+ */
+@Component
+@Slf4j
+public class EmptyOrderReaper {
+
+    private final OrderRepo orderRepo;
+    private final TransactionTemplate chunkTemplate;
+
+    private final Duration minAge;
+    private final int batchSize;
+    private final long maxRunMs;
+
+    private final Counter reaped;
+    private final Timer runTimer;
+
+    public EmptyOrderReaper(OrderRepo orderRepo,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${orders.reaper.min-age:PT30M}") Duration minAge,
+                            @Value("${orders.reaper.batch-size:500}") int batchSize,
+                            @Value("${orders.reaper.max-run-ms:10000}") long maxRunMs) {
+        this.orderRepo = orderRepo;
+        this.chunkTemplate = new TransactionTemplate(transactionManager);
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+        this.maxRunMs = maxRunMs;
+
+        this.reaped = Counter.builder("orders.reaper.reaped")
+                .description("Empty pending orders deleted by the reaper")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("orders.reaper.run")
+                .description("Time spent per reaper run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${orders.reaper.interval-ms:300000}",
+               fixedDelayString = "${orders.reaper.interval-ms:300000}")
+    public void reap() {
+        runTimer.record(() -> {
+            reapOnce();
+        });
+    }
+
+    int reapOnce() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        long deadline = System.currentTimeMillis() + maxRunMs;
+        int total = 0;
+
+        while (System.currentTimeMillis() < deadline) {
+            Integer deleted = chunkTemplate.execute(status -> {
+                List<Integer> ids = orderRepo.findEmptyPendingOrderIdsBefore(cutoff, batchSize);
+                return ids.isEmpty() ? -1 : orderRepo.deleteEmptyPendingOrders(ids);
+            });
+            if (deleted == null || deleted < 0) break;
+
+            total += deleted;
+            reaped.increment(deleted);
+            if (deleted == 0) break; // every candidate got items meanwhile; nothing left to do this run
+        }
+
+        if (total > 0) {
+            log.info("Reaped {} empty orders created before {}", total, cutoff);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,128 @@
+package com.resturant.Restaurant_Application.customer.service;
+
+import com.resturant.Restaurant_Application.customer.entity.dtos.CompleteOrderView;
+import com.resturant.Restaurant_Application.customer.entity.dtos.MenuResponse;
+import com.resturant.Restaurant_Application.customer.entity.dtos.OrderItemsResponse;
+import com.resturant.Restaurant_Application.customer.entity.dtos.PaymentResponseWithOrder;
+import com.resturant.Restaurant_Application.customer.entity.dtos.ToppingsResponse;
+import com.resturant.Restaurant_Application.customer.entity.repo.OrderHistoryRepo;
+import com.resturant.Restaurant_Application.restaurant.admin.service.CatalogSnapshot;
+import com.resturant.Restaurant_Application.restaurant.admin.service.MenuCatalogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Builds CompleteOrderView lists from flat order and item rows: one query for the orders,
+ * one for all of their items and toppings, whatever the number of orders.
+ * Menu and topping details come from the in-memory catalog snapshot.
+ * Payment lists work the same way, plus one query for the payments themselves.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderHistoryReader {
+
+    private final OrderHistoryRepo historyRepo;
+    private final MenuCatalogService catalogService;
+
+    public List<CompleteOrderView> toViews(List<OrderHistoryRepo.OrderRow> orders) {
+        if (orders.isEmpty()) return List.of();
+
+        List<Integer> orderIds = orders.stream().map(OrderHistoryRepo.OrderRow::id).toList();
+        Map<Integer, List<OrderItemsResponse>> itemsByOrder = groupItems(historyRepo.findItems(orderIds));
+
+        return orders.stream()
+                .map(order -> CompleteOrderView.builder()
+                        .date(order.date())
+                        .status(order.status())
+                        .totalAmount(order.totalAmount())
+                        .orderItems(itemsByOrder.getOrDefault(order.id(), new ArrayList<>()))
+                        .build())
+                .toList();
+    }
+
+    public List<PaymentResponseWithOrder> toPaymentViews(List<OrderHistoryRepo.PaymentRow> payments) {
+        if (payments.isEmpty()) return List.of();
+
+        List<OrderHistoryRepo.OrderRow> orders = historyRepo.findOrdersByIds(
+                payments.stream().map(OrderHistoryRepo.PaymentRow::orderId).distinct().toList());
+        List<CompleteOrderView> views = toViews(orders);
+        Map<Integer, CompleteOrderView> viewByOrder = new HashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            viewByOrder.put(orders.get(i).id(), views.get(i));
+        }
+
+        return payments.stream()
+                .map(payment -> PaymentResponseWithOrder.builder()
+                        .id(payment.id())
+                        .amountpaid(payment.amountPaid())
+                        .paymentMethod(payment.paymentMethod())
+                        .paymentDate(payment.paymentDate())
+                        .orderId(payment.orderId())
+                        .completeOrderViews(viewByOrder.containsKey(payment.orderId())
+                                ? List.of(viewByOrder.get(payment.orderId()))
+                                : List.of())
+                        .build())
+                .toList();
+    }
+
+    public List<OrderItemsResponse> toItemViews(List<OrderHistoryRepo.CustomerItemRow> items) {
+        if (items.isEmpty()) return List.of();
+
+        CatalogSnapshot catalog = catalogService.snapshot();
+        Map<Integer, List<Integer>> toppingIds = historyRepo.findToppingIds(
+                items.stream().map(OrderHistoryRepo.CustomerItemRow::itemId).toList());
+
+        return items.stream()
+                .map(item -> OrderItemsResponse.builder()
+                        .menuItem(menuView(catalog, item.menuId()))
+                        .toppings(toppingIds.getOrDefault(item.itemId(), List.of()).stream()
+                                .map(id -> toppingView(catalog, id))
+                                .collect(Collectors.toList()))
+                        .quantity(item.quantity())
+                        .totalPrice(item.price())
+                        .build())
+                .toList();
+    }
+
+    // rows arrive sorted by order and item, one per topping
+    private Map<Integer, List<OrderItemsResponse>> groupItems(List<OrderHistoryRepo.ItemRow> rows) {
+        CatalogSnapshot catalog = catalogService.snapshot();
+        Map<Integer, List<OrderItemsResponse>> itemsByOrder = new LinkedHashMap<>();
+
+        OrderItemsResponse current = null;
+        Integer currentItemId = null;
+        for (OrderHistoryRepo.ItemRow row : rows) {
+            if (!row.itemId().equals(currentItemId)) {
+                currentItemId = row.itemId();
+                current = OrderItemsResponse.builder()
+                        .menuItem(menuView(catalog, row.menuId()))
+                        .toppings(new ArrayList<>())
+                        .quantity(row.quantity())
+                        .totalPrice(row.price())
+                        .build();
+                itemsByOrder.computeIfAbsent(row.orderId(), id -> new ArrayList<>()).add(current);
+            }
+            if (row.toppingId() != null) {
+                current.getToppings().add(toppingView(catalog, row.toppingId()));
+            }
+        }
+        return itemsByOrder;
+    }
+
+    // an id missing from the snapshot (removed since) still shows up, just without details
+    private static MenuResponse menuView(CatalogSnapshot catalog, Integer menuId) {
+        if (menuId == null) return null;
+        return catalog.menuById(menuId).orElseGet(() -> MenuResponse.builder().id(menuId).build());
+    }
+
+    private static ToppingsResponse toppingView(CatalogSnapshot catalog, Integer toppingId) {
+        return catalog.toppingById(toppingId).orElseGet(() -> ToppingsResponse.builder().id(toppingId).build());
+    }
+}
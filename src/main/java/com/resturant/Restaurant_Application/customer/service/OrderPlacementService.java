@@ -5,13 +5,16 @@ import com.resturant.Restaurant_Application.customer.entity.*;
 import com.resturant.Restaurant_Application.customer.entity.Enum.Status;
 import com.resturant.Restaurant_Application.customer.entity.dtos.*;
 import com.resturant.Restaurant_Application.customer.entity.repo.*;
-import com.resturant.Restaurant_Application.restaurant.Menu;
+import com.resturant.Restaurant_Application.customer.security.AuthenticatedCustomer;
+import com.resturant.Restaurant_Application.customer.security.UserSnapshot;
 import com.resturant.Restaurant_Application.restaurant.Toppings;
-import com.resturant.Restaurant_Application.restaurant.admin.repo.MenuRepo;
-import com.resturant.Restaurant_Application.restaurant.admin.repo.ToppingsRepo;
+import com.resturant.Restaurant_Application.restaurant.admin.service.CatalogEntry;
+import com.resturant.Restaurant_Application.restaurant.admin.service.MenuCatalogService;
+import com.resturant.Restaurant_Application.restaurant.admin.service.SalesRollupService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
@@ -28,24 +31,25 @@ import java.util.stream.Collectors;
 public class OrderPlacementService {
 
     private final OrderItemsRepo orderItemsRepo;
-    private final MenuRepo menuRepo;
-    private final ToppingsRepo toppingsRepo;
+    private final OrderItemsBatchRepo orderItemsBatchRepo;
     private final OrderRepo orderRepo;
+    private final CustomerRepo customerRepo;
     private final PaymentRepo paymentRepo;
-    private final CustomerCreationService service;
+    private final AuthenticatedCustomer authenticatedCustomer;
     private final NotificationService notificationService;
+    private final MenuCatalogService catalogService;
+    private final SalesRollupService salesRollupService;
 
     /** ------------------ PLACE ORDER ------------------ **/
     public OrderResponse placeOrder(String email) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UsernameNotFoundException("Customer does not exist");
 
-        // Delete empty orders first
-        orderRepo.deleteOrdersWithoutItems();
+        // Abandoned empty orders are cleaned up in the background by EmptyOrderReaper
 
         // Create order
         Order order = new Order();
-        order.setCustomer(customer);
+        order.setCustomer(customerRepo.getReferenceById(customer.id()));
         order.setTotalAmount(BigDecimal.ZERO);
         order.setDate(LocalDateTime.now());
         order.setStatus(Status.PENDING);
@@ -54,7 +58,7 @@ public class OrderPlacementService {
         // Notify admin
         notificationService.createNotification(
                 "New Order Placed",
-                "Order #" + order.getId() + " has been placed by " + customer.getName() + "."
+                "Order #" + order.getId() + " has been placed by " + customer.name() + "."
         );
 
         return OrderResponse.builder()
@@ -67,127 +71,245 @@ public class OrderPlacementService {
 
     /** ------------------ ADD ORDER ITEMS ------------------ **/
     public CompleteOrderView addOrderItems(String email, Integer orderId, OrderItemsRequest request){
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UsernameNotFoundException("Customer does not exist");
 
-        Order order = orderRepo.findById(orderId)
-                .orElseThrow(() -> new UserDoesNotExistException("Order does not exist"));
-
-        // Fetch menu item
-        Menu menuItem = menuRepo.findByFoodNameIgnoreCase(request.getFoodName());
-        if (menuItem == null) throw new UserDoesNotExistException("Dish not found");
-        BigDecimal menuPrice = menuItem.getPrice();
+        OrderHeader header = loadPendingHeader(orderId, customer);
 
-        // Fetch toppings
-        List<Toppings> toppingsList = new ArrayList<>();
-        BigDecimal toppingsTotalPrice = BigDecimal.ZERO;
-        if (request.getToppingsName() != null) {
-            for (String toppingName : request.getToppingsName()) {
-                Toppings topping = toppingsRepo.findByNameIgnoreCase(toppingName);
-                if (topping == null) throw new UserDoesNotExistException("Topping not found: " + toppingName);
-                toppingsList.add(topping);
-                toppingsTotalPrice = toppingsTotalPrice.add(topping.getPrice());
-            }
-        }
+        // Resolve menu item and toppings from the in-memory catalog
+        MenuCatalogService.ResolvedLine line = catalogService.resolve(request.getFoodName(), request.getToppingsName());
+        List<Toppings> toppingsList = line.toppings();
 
         // Calculate total for this item
         int quantity = request.getQuantity() != null && request.getQuantity() > 0 ? request.getQuantity() : 1;
-        BigDecimal finalTotal = (menuPrice.add(toppingsTotalPrice)).multiply(BigDecimal.valueOf(quantity));
+        BigDecimal finalTotal = line.totalFor(quantity);
 
         // Create OrderItems
         OrderItems placedOrder = OrderItems.builder()
-                .order(order)        // link to order
-                .menu(menuItem)
+                .order(orderRepo.getReferenceById(orderId))        // link to order
+                .menu(line.menu())
                 .toppings(toppingsList)
                 .quantity(quantity)
                 .price(finalTotal)
                 .build();
         orderItemsRepo.save(placedOrder);
 
-        // Maintain bidirectional relationship
-        order.getOrderItems().add(placedOrder);
-
-        // Update order total
-        BigDecimal orderTotal = order.getOrderItems().stream()
-                .map(OrderItems::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        order.setTotalAmount(orderTotal);
-        orderRepo.save(order);
+        // Update order total by this line only
+        applyTotalDelta(header, finalTotal);
 
         // Notify admin
-        String items = menuItem.getFoodName() + " x" + quantity;
+        String items = line.menuEntry().name() + " x" + quantity;
         if (!toppingsList.isEmpty()) {
-            items += " (Toppings: " + toppingsList.stream()
-                    .map(Toppings::getName)
+            items += " (Toppings: " + line.toppingEntries().stream()
+                    .map(CatalogEntry::name)
                     .collect(Collectors.joining(", ")) + ")";
         }
         notificationService.createNotification(
                 "Order Items Added",
-                "Customer " + customer.getName() + " added items to Order #" + order.getId() + ": " + items
+                "Customer " + customer.name() + " added items to Order #" + orderId + ": " + items
         );
 
-        return mapOrderToCompleteOrderView(order);
+        return loadCompleteOrderView(orderId);
+    }
+
+    /** ------------------ ADD ORDER ITEMS (BATCH) ------------------ **/
+    public CompleteOrderView addOrderItemsBatch(String email, Integer orderId, List<OrderItemsRequest> requests) {
+        UserSnapshot customer = authenticatedCustomer.customer(email);
+        if (customer == null) throw new UsernameNotFoundException("Customer does not exist");
+
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("No order items provided");
+        }
+
+        OrderHeader header = loadPendingHeader(orderId, customer);
+
+        // Resolve every line first, so a bad line rejects the whole cart before anything is written
+        PreparedCart cart = prepareCart(requests);
+
+        // One JDBC batch for the items (and one for their toppings), one order update
+        orderItemsBatchRepo.insertAll(orderId, cart.rows());
+        applyTotalDelta(header, cart.total());
+
+        // Notify admin once for the whole cart
+        notificationService.createNotification(
+                "Order Items Added",
+                "Customer " + customer.name() + " added " + cart.rows().size() + " items to Order #" + orderId
+                        + ": " + String.join("; ", cart.summary())
+        );
+
+        return loadCompleteOrderView(orderId);
+    }
+
+    /** ------------------ CHECKOUT (ORDER + ITEMS + PAYMENT) ------------------ **/
+    public CheckoutResponse checkout(String email, String idempotencyKey, CheckoutRequest request) {
+        UserSnapshot customer = authenticatedCustomer.customer(email);
+        if (customer == null) throw new UsernameNotFoundException("Customer does not exist");
+
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > 64) {
+            throw new IllegalArgumentException("Idempotency-Key header must be 1 to 64 characters");
+        }
+
+        // A retried request gets the order its first attempt created
+        Order existing = orderRepo.findByCustomerIdAndIdempotencyKey(customer.id(), idempotencyKey).orElse(null);
+        if (existing != null) {
+            return mapToCheckoutResponse(existing, mapOrderToCompleteOrderView(existing), true);
+        }
+
+        if (request == null || request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("No order items provided");
+        }
+
+        PreparedCart cart = prepareCart(request.getItems());
+
+        BigDecimal amountPaid = request.getAmountPaid();
+        if (amountPaid == null || amountPaid.compareTo(cart.total()) != 0) {
+            throw new IllegalArgumentException("Payment must equal the order total");
+        }
+
+        // Order is written once, already paid, so there is never an empty or pending row to clean up
+        Order order = new Order();
+        order.setCustomer(customerRepo.getReferenceById(customer.id()));
+        order.setTotalAmount(cart.total());
+        order.setDate(LocalDateTime.now());
+        order.setStatus(Status.COMPLETED);
+        order.setIdempotencyKey(idempotencyKey);
+        orderRepo.save(order);
+
+        orderItemsBatchRepo.insertAll(order.getId(), cart.rows());
+
+        PaymentEntity payment = new PaymentEntity();
+        payment.setOrder(order);
+        payment.setAmountpaid(amountPaid);
+        payment.setPaymentMethod(request.getPaymentMethod());
+        payment.setPaymentDate(LocalDateTime.now());
+        paymentRepo.save(payment);
+        order.setPayment(payment);
+        salesRollupService.recordCustomerPayment(order.getId());
+
+        // Notify admin once for the whole checkout
+        notificationService.createNotification(
+                "Order Paid",
+                "Customer " + customer.name() + " placed and paid Order #" + order.getId()
+                        + " (" + String.join("; ", cart.summary()) + "). Amount: " + amountPaid
+        );
+
+        return mapToCheckoutResponse(order, withAddedItems(mapOrderToCompleteOrderView(order), cart), false);
+    }
+
+    /** Looks up the checkout a concurrent request with the same key has already committed. */
+    public CheckoutResponse findCheckout(String email, String idempotencyKey) {
+        UserSnapshot customer = authenticatedCustomer.customer(email);
+        if (customer == null) throw new UsernameNotFoundException("Customer does not exist");
+
+        Order order = orderRepo.findByCustomerIdAndIdempotencyKey(customer.id(), idempotencyKey)
+                .orElseThrow(() -> new UserDoesNotExistException("Order does not exist"));
+        return mapToCheckoutResponse(order, mapOrderToCompleteOrderView(order), true);
+    }
+
+    /** ------------------ CART PREPARATION ------------------ **/
+    private record PreparedCart(List<OrderItemsBatchRepo.NewItem> rows,
+                                List<OrderItemsResponse> items,
+                                List<String> summary,
+                                BigDecimal total) {}
+
+    // Resolves and prices every line against the in-memory catalog; nothing is written here
+    private PreparedCart prepareCart(List<OrderItemsRequest> requests) {
+        List<OrderItemsBatchRepo.NewItem> rows = new ArrayList<>();
+        List<OrderItemsResponse> items = new ArrayList<>();
+        List<String> summary = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (OrderItemsRequest request : requests) {
+            MenuCatalogService.ResolvedLine line = catalogService.resolve(request.getFoodName(), request.getToppingsName());
+            int quantity = request.getQuantity() != null && request.getQuantity() > 0 ? request.getQuantity() : 1;
+            BigDecimal lineTotal = line.totalFor(quantity);
+            total = total.add(lineTotal);
+
+            rows.add(new OrderItemsBatchRepo.NewItem(
+                    line.menuEntry().id(),
+                    line.toppingEntries().stream().map(CatalogEntry::id).toList(),
+                    quantity,
+                    lineTotal
+            ));
+
+            items.add(OrderItemsResponse.builder()
+                    .menuItem(catalogService.menuView(line.menu()))
+                    .toppings(line.toppings().stream().map(catalogService::toppingView).collect(Collectors.toList()))
+                    .quantity(quantity)
+                    .totalPrice(lineTotal)
+                    .build());
+
+            String item = line.menuEntry().name() + " x" + quantity;
+            if (!line.toppingEntries().isEmpty()) {
+                item += " (Toppings: " + line.toppingEntries().stream()
+                        .map(CatalogEntry::name)
+                        .collect(Collectors.joining(", ")) + ")";
+            }
+            summary.add(item);
+        }
+
+        return new PreparedCart(rows, items, summary, total);
+    }
+
+    // the batch-inserted rows bypass the persistence context, so append their views to the loaded ones
+    private CompleteOrderView withAddedItems(CompleteOrderView view, PreparedCart cart) {
+        List<OrderItemsResponse> allItems = new ArrayList<>(view.getOrderItems());
+        allItems.addAll(cart.items());
+        view.setOrderItems(allItems);
+        return view;
     }
 
     /** ------------------ UPDATE ORDER ITEM ------------------ **/
     public CompleteOrderView updateOrderItem(String email, Integer orderItemId, OrderItemsRequest request) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UsernameNotFoundException("Customer does not exist");
 
         OrderItems orderItem = orderItemsRepo.findById(orderItemId)
                 .orElseThrow(() -> new UserDoesNotExistException("Order item does not exist"));
 
-        Order order = orderItem.getOrder();
-        if (order.getStatus() == Status.COMPLETED) {
+        // Reading the header leaves the order (and its EAGER items) unloaded
+        OrderHeader header = loadHeader(orderItem.getOrder().getId());
+        if (Status.COMPLETED.name().equals(header.getStatus())) {
             throw new IllegalStateException("Cannot update order items for a completed order");
         }
 
-        // Update menu
-        if (request.getFoodName() != null && !request.getFoodName().isEmpty()) {
-            Menu menuItem = menuRepo.findByFoodNameIgnoreCase(request.getFoodName());
-            if (menuItem == null) throw new UserDoesNotExistException("Dish not found");
-            orderItem.setMenu(menuItem);
-        }
+        BigDecimal previousPrice = orderItem.getPrice();
+
+        boolean menuChanged = request.getFoodName() != null && !request.getFoodName().isEmpty();
 
-        // Update toppings
+        // Update menu and toppings, resolved from the in-memory catalog
         if (request.getToppingsName() != null) {
-            List<Toppings> toppingsList = new ArrayList<>();
-            BigDecimal toppingsTotalPrice = BigDecimal.ZERO;
-            for (String toppingName : request.getToppingsName()) {
-                Toppings topping = toppingsRepo.findByNameIgnoreCase(toppingName);
-                if (topping == null) throw new UserDoesNotExistException("Topping not found: " + toppingName);
-                toppingsList.add(topping);
-                toppingsTotalPrice = toppingsTotalPrice.add(topping.getPrice());
-            }
-            orderItem.setToppings(toppingsList);
+            String foodName = menuChanged
+                    ? request.getFoodName()
+                    : catalogService.menuView(orderItem.getMenu()).getFoodName();
+            MenuCatalogService.ResolvedLine line = catalogService.resolve(foodName, request.getToppingsName());
+            orderItem.setMenu(line.menu());
+            orderItem.setToppings(line.toppings());
 
-            BigDecimal menuPrice = orderItem.getMenu().getPrice();
             int quantity = request.getQuantity() != null && request.getQuantity() > 0 ? request.getQuantity() : orderItem.getQuantity();
             orderItem.setQuantity(quantity);
-            orderItem.setPrice(menuPrice.add(toppingsTotalPrice).multiply(BigDecimal.valueOf(quantity)));
+            orderItem.setPrice(line.totalFor(quantity));
+        } else if (menuChanged) {
+            orderItem.setMenu(catalogService.resolve(request.getFoodName(), null).menu());
         }
 
         orderItemsRepo.save(orderItem);
 
-        // Update order total
-        BigDecimal orderTotal = order.getOrderItems().stream()
-                .map(OrderItems::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        order.setTotalAmount(orderTotal);
-        orderRepo.save(order);
+        // Update order total by the change in this line's price
+        applyTotalDelta(header, orderItem.getPrice().subtract(previousPrice));
 
         // Notify admin
         notificationService.createNotification(
                 "Order Item Updated",
-                "Customer " + customer.getName() + " updated items in Order #" + order.getId()
+                "Customer " + customer.name() + " updated items in Order #" + header.getId()
         );
 
-        return mapOrderToCompleteOrderView(order);
+        return loadCompleteOrderView(header.getId());
     }
 
     /** ------------------ DELETE ORDER ------------------ **/
     public void deleteOrder(String email, Integer orderId) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UsernameNotFoundException("Customer does not exist");
 
         Order order = orderRepo.findById(orderId)
@@ -199,14 +321,14 @@ public class OrderPlacementService {
         // Notify admin
         notificationService.createNotification(
                 "Order Cancelled",
-                "Customer " + customer.getName() + " deleted Order #" + order.getId()
+                "Customer " + customer.name() + " deleted Order #" + order.getId()
         );
     }
 
     /** ------------------ MAKE PAYMENT ------------------ **/
     @Transactional
     public PaymentResponse makePayment(String email, Integer orderId, PaymentRequest request) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UsernameNotFoundException("Customer does not exist");
 
         Order order = orderRepo.findById(orderId)
@@ -227,6 +349,7 @@ public class OrderPlacementService {
         payment.setPaymentMethod(request.getPaymentMethod());
         payment.setPaymentDate(LocalDateTime.now());
         paymentRepo.save(payment);
+        salesRollupService.recordCustomerPayment(order.getId());
 
         order.setStatus(Status.COMPLETED);
         orderRepo.save(order);
@@ -234,7 +357,7 @@ public class OrderPlacementService {
         // Notify admin
         notificationService.createNotification(
                 "Order Paid",
-                "Customer " + customer.getName() + " paid Order #" + order.getId() + ". Amount: " + amountPaid
+                "Customer " + customer.name() + " paid Order #" + order.getId() + ". Amount: " + amountPaid
         );
 
         return PaymentResponse.builder()
@@ -246,21 +369,63 @@ public class OrderPlacementService {
                 .build();
     }
 
+    /** ------------------ ORDER TOTALS ------------------ **/
+    private OrderHeader loadHeader(Integer orderId) {
+        return orderRepo.findHeaderById(orderId)
+                .orElseThrow(() -> new UserDoesNotExistException("Order does not exist"));
+    }
+
+    // Lines can only be added to the caller's own order while it is unpaid; a paid order's total
+    // is already in the sales rollup. Someone else's order looks the same as a missing one.
+    private OrderHeader loadPendingHeader(Integer orderId, UserSnapshot customer) {
+        OrderHeader header = orderRepo.findHeaderByIdAndCustomerId(orderId, customer.id())
+                .orElseThrow(() -> new UserDoesNotExistException("Order does not exist"));
+        if (!Status.PENDING.name().equals(header.getStatus())) {
+            throw new IllegalStateException("Items can only be added to a pending order");
+        }
+        return header;
+    }
+
+    // One conditional UPDATE per edit; zero rows means another request changed the order after we read it
+    private void applyTotalDelta(OrderHeader header, BigDecimal delta) {
+        if (orderRepo.applyTotalDelta(header.getId(), delta, header.getVersion()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Order.class, header.getId());
+        }
+    }
+
+    // Loaded after the total update, so the view shows the new total and every line
+    private CompleteOrderView loadCompleteOrderView(Integer orderId) {
+        Order order = orderRepo.findById(orderId)
+                .orElseThrow(() -> new UserDoesNotExistException("Order does not exist"));
+        return mapOrderToCompleteOrderView(order);
+    }
+
+    /** ------------------ MAP CHECKOUT RESPONSE ------------------ **/
+    private CheckoutResponse mapToCheckoutResponse(Order order, CompleteOrderView view, boolean replayed) {
+        PaymentEntity payment = order.getPayment();
+        PaymentResponse paymentResponse = payment == null ? null : PaymentResponse.builder()
+                .orderId(order.getId())
+                .amountPaid(payment.getAmountpaid())
+                .status(order.getStatus().name())
+                .paymentMethod(payment.getPaymentMethod())
+                .date(payment.getPaymentDate())
+                .build();
+
+        return CheckoutResponse.builder()
+                .order(view)
+                .payment(paymentResponse)
+                .replayed(replayed)
+                .build();
+    }
+
     /** ------------------ MAP ORDER TO COMPLETE VIEW ------------------ **/
     private CompleteOrderView mapOrderToCompleteOrderView(Order order) {
         List<OrderItemsResponse> orderItems = order.getOrderItems().stream().map(item -> {
             List<ToppingsResponse> toppings = item.getToppings().stream()
-                    .map(t -> new ToppingsResponse(t.getId(), t.getName(), t.getPrice()))
+                    .map(catalogService::toppingView)
                     .collect(Collectors.toList());
 
-            MenuResponse menuResponse = new MenuResponse(
-                    item.getMenu().getId(),
-                    item.getMenu().getFoodName(),
-                    item.getMenu().getCategory(),
-                    item.getMenu().getIs_available(),
-                    item.getMenu().getPrice(),
-                    item.getMenu().getDescription()
-            );
+            MenuResponse menuResponse = catalogService.menuView(item.getMenu());
 
             return OrderItemsResponse.builder()
                     .menuItem(menuResponse)
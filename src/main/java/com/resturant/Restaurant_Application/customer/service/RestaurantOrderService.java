@@ -1,20 +1,14 @@
 package com.resturant.Restaurant_Application.customer.service;
 
 import com.resturant.Restaurant_Application.ExceptionHandlers.UserDoesNotExistException;
-import com.resturant.Restaurant_Application.customer.entity.CustomerEntity;
 import com.resturant.Restaurant_Application.customer.entity.Enum.Status;
-import com.resturant.Restaurant_Application.customer.entity.Order;
-import com.resturant.Restaurant_Application.customer.entity.OrderItems;
-import com.resturant.Restaurant_Application.customer.entity.PaymentEntity;
 import com.resturant.Restaurant_Application.customer.entity.dtos.*;
 import com.resturant.Restaurant_Application.customer.entity.repo.CustomerRepo;
-import com.resturant.Restaurant_Application.customer.entity.repo.OrderItemsRepo;
+import com.resturant.Restaurant_Application.customer.entity.repo.OrderHistoryRepo;
 import com.resturant.Restaurant_Application.customer.entity.repo.OrderRepo;
-import com.resturant.Restaurant_Application.customer.entity.repo.PaymentRepo;
-import com.resturant.Restaurant_Application.restaurant.Menu;
-import com.resturant.Restaurant_Application.restaurant.Toppings;
-import com.resturant.Restaurant_Application.restaurant.admin.repo.MenuRepo;
-import com.resturant.Restaurant_Application.restaurant.admin.repo.ToppingsRepo;
+import com.resturant.Restaurant_Application.customer.security.AuthenticatedCustomer;
+import com.resturant.Restaurant_Application.customer.security.UserSnapshot;
+import com.resturant.Restaurant_Application.restaurant.admin.service.MenuCatalogService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -23,164 +17,130 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class RestaurantOrderService {
 
-    private final OrderItemsRepo orderItemsRepo;
-    private final MenuRepo menuRepo;
-    private final ToppingsRepo toppingsRepo;
+    private static final int RECENT_PAYMENTS = 5;
+
     private final OrderRepo orderRepo;
-    private final PaymentRepo paymentRepo;
-    private final CustomerCreationService service;
+    private final AuthenticatedCustomer authenticatedCustomer;
+    private final MenuCatalogService catalogService;
+    private final OrderHistoryRepo historyRepo;
+    private final OrderHistoryReader historyReader;
 
 
     // to view all menu items
     public List<MenuResponse> viewMenu(String email) {
         // to check if the customer exists
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) {
             throw new UsernameNotFoundException("Customer does not exist");
         }
 
-        List<Menu> allMenu = menuRepo.findAll();
+        // served from the in-memory catalog, no menu query
+        List<MenuResponse> allMenu = catalogService.snapshot().menu();
 
         if (allMenu.isEmpty()) {
             throw new UsernameNotFoundException("No dishes uploaded yet");
         }
 
-        return mapToMenuList(allMenu);
+        return allMenu;
     }
 
     // search through menu
     public List<MenuResponse> searchMenuItems(String email, String keyword) {
         // 1️⃣ Verify customer exists
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) {
             throw new UserDoesNotExistException("Customer does not exist");
         }
 
-        // 2️⃣ Search menu items
-        List<Menu> menuList = menuRepo.searchMenu(keyword);
+        // 2️⃣ Search the in-memory catalog index
+        List<MenuResponse> menuList = catalogService.snapshot().searchMenu(keyword);
 
         // 3️⃣ Check if search returned anything
         if (menuList.isEmpty()) {
             throw new UserDoesNotExistException("No menu items found matching: " + keyword);
         }
 
-        // 4️⃣ Map to MenuResponse
-        List<MenuResponse> response = menuList.stream()
-                .map(menu -> MenuResponse.builder()
-                        .id(menu.getId())
-                        .foodName(menu.getFoodName())
-                        .category(menu.getCategory())
-                        .is_available(menu.getIs_available())
-                        .price(menu.getPrice())
-                        .description(menu.getDescription())
-                        .build())
-                .toList();
-
-        return response;
+        return menuList;
     }
 
 
-    private List<MenuResponse> mapToMenuList(List<Menu> menus) {
-        return menus.stream()
-                .map(menu -> MenuResponse.builder()
-                        .id(menu.getId())
-                        .foodName(menu.getFoodName())
-                        .price(menu.getPrice())
-                        .category(menu.getCategory())
-                        .description(menu.getDescription())
-                        .is_available(menu.getIs_available())
-                        .build())
-                .toList();
-    }
-
     // to group according to category
     public List<MenuResponse> groupByCategory(String email, String category) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) {
             throw new UsernameNotFoundException("Customer does not exist");
         }
 
-        List<Menu> menuList = menuRepo.findAllByCategoryLike(category);
+        List<MenuResponse> menuList = catalogService.snapshot().menuInCategory(category);
         if (menuList.isEmpty()) {
             throw new UserDoesNotExistException("No menu items found within category: " + category);
         }
 
-        return mapToMenuList(menuList);
+        return menuList;
     }
 
     // to view all toppings
     public List<ToppingsResponse> viewToppings(String email) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) {
             throw new UsernameNotFoundException("Customer does not exist");
         }
 
-        List<Toppings> response = toppingsRepo.findAll();
+        List<ToppingsResponse> response = catalogService.snapshot().toppings();
         if (response.isEmpty()) {
             throw new UsernameNotFoundException("No toppings uploaded yet");
         }
 
-        return mapToToppings(response);
+        return response;
     }
 
     public List<ToppingsResponse> searchToppings(String email, String keyword){
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) {
             throw new UsernameNotFoundException("Customer does not exist");
         }
 
-        List<Toppings> response = toppingsRepo.searchToppings(keyword);
+        List<ToppingsResponse> response = catalogService.snapshot().searchToppings(keyword);
         if (response.isEmpty()) {
             throw new UsernameNotFoundException("No toppings found matching: " + keyword);
         }
 
-        return mapToToppings(response);
-    }
-
-    private List<ToppingsResponse> mapToToppings(List<Toppings> toppings) {
-        return toppings.stream().map(
-                        toppings1 -> ToppingsResponse.builder()
-                                .id(toppings1.getId())
-                                .name(toppings1.getName())
-                                .price(toppings1.getPrice())
-                                .build())
-                .toList();
+        return response;
     }
 
 
-    // to view all orders that is customer orders pls
-    public List<OrderResponse> viewOrders(String email) {
-        CustomerEntity customer = service.getUserByEmail(email);
+    // to view all orders that is customer orders pls, one keyset page at a time (newest first)
+    public KeysetPage<OrderResponse> viewOrders(String email, String cursor, Integer size) {
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) {
             throw new UserDoesNotExistException("Customer does not exist");
         }
 
         // to and print out only orders of the customer
-        List<Order> customerOrder = orderRepo.findByCustomer_Id(customer.getId());
-        if (customerOrder.isEmpty()) {
+        KeysetPage<OrderHistoryRepo.OrderRow> customerOrder =
+                historyRepo.findOrdersPage(customer.id(), PageCursor.decode(cursor), PageCursor.pageSize(size));
+        if (cursor == null && customerOrder.items().isEmpty()) {
             throw new UserDoesNotExistException("No dishes and orders placed yet");
         }
 
-        return mapToCustomerOrders(customerOrder);
+        return customerOrder.map(this::mapToCustomerOrders);
 
     }
 
-    private List<OrderResponse> mapToCustomerOrders(List<Order> order) {
+    private List<OrderResponse> mapToCustomerOrders(List<OrderHistoryRepo.OrderRow> order) {
         return order.stream().map(
                         customerOrder -> OrderResponse.builder()
-                                .id(customerOrder.getId())
-                                .date(customerOrder.getDate())
-                                .status(customerOrder.getStatus())
-                                .totalAmount(customerOrder.getTotalAmount())
+                                .id(customerOrder.id())
+                                .date(customerOrder.date())
+                                .status(customerOrder.status())
+                                .totalAmount(customerOrder.totalAmount())
                                 .build())
                 .toList();
     }
@@ -189,321 +149,147 @@ public class RestaurantOrderService {
     // here the order items i going to be using the ids of the specific menu items t fetch the data
     // here the order items would be mapped to the order id
 
-    public List<CompleteOrderView> getCompleteOrders(String email) {
-        CustomerEntity customer = service.getUserByEmail(email);
+    public KeysetPage<CompleteOrderView> getCompleteOrders(String email, String cursor, Integer size) {
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) {
             throw new UserDoesNotExistException("Customer does not exist");
         }
 
-        List<Order> customerOrders = orderRepo.findByCustomer_Id(customer.getId());
-        if (customerOrders.isEmpty()) {
+        KeysetPage<OrderHistoryRepo.OrderRow> customerOrders =
+                historyRepo.findOrdersPage(customer.id(), PageCursor.decode(cursor), PageCursor.pageSize(size));
+        if (cursor == null && customerOrders.items().isEmpty()) {
             throw new UserDoesNotExistException("No orders placed yet");
         }
 
-        List<CompleteOrderView> completeOrders = mapOrdersToCompleteOrderView(customerOrders);
-
-        // Print for debugging
-        completeOrders.forEach(order -> {
-            System.out.println("Order Date: " + order.getDate());
-            System.out.println("Status: " + order.getStatus());
-            System.out.println("Total Amount: " + order.getTotalAmount());
-            System.out.println("Items:");
-            order.getOrderItems().forEach(item -> {
-                System.out.println("  Menu: " + item.getMenuItem().getFoodName());
-                System.out.println("  Category: " + item.getMenuItem().getCategory());
-                System.out.println("  Quantity: " + item.getQuantity());
-                System.out.println("  Item Total: " + item.getTotalPrice());
-                if (!item.getToppings().isEmpty()) {
-                    System.out.println("  Toppings: " + item.getToppings().stream()
-                            .map(t -> t.getName() + "($" + t.getPrice() + ")")
-                            .collect(Collectors.joining(", ")));
-                }
-                System.out.println();
-            });
-            System.out.println("-------------------------------");
-        });
-
-        return completeOrders;
+        return customerOrders.map(historyReader::toViews);
     }
 
-    private List<CompleteOrderView> mapOrdersToCompleteOrderView(List<Order> orders) {
-        List<CompleteOrderView> completeOrders = new ArrayList<>();
-
-        for (Order order : orders) {
-            List<OrderItemsResponse> orderItems = order.getOrderItems().stream().map(item -> {
-
-                // Map toppings
-                List<ToppingsResponse> toppings = item.getToppings().stream()
-                        .map(t -> new ToppingsResponse(t.getId(), t.getName(), t.getPrice()))
-                        .collect(Collectors.toList());
-
-                // Map menu item
-                MenuResponse menuResponse = new MenuResponse(
-                        item.getMenu().getId(),
-                        item.getMenu().getFoodName(),
-                        item.getMenu().getCategory(),
-                        item.getMenu().getIs_available(),
-                        item.getMenu().getPrice(),
-                        item.getMenu().getDescription()
-                );
-
-                // Use stored total from OrderItems
-                BigDecimal itemTotal = item.getPrice(); // ✅ already calculated
-
-                return OrderItemsResponse.builder()
-                        .menuItem(menuResponse)
-                        .toppings(toppings)
-                        .quantity(item.getQuantity())
-                        .totalPrice(itemTotal) // ✅ no need to recalc
-                        .build();
-            }).collect(Collectors.toList());
-
-            CompleteOrderView completeOrder = CompleteOrderView.builder()
-                    .date(order.getDate())
-                    .status(order.getStatus())
-                    .totalAmount(order.getTotalAmount()) // from Order entity
-                    .orderItems(orderItems)
-                    .build();
-
-            completeOrders.add(completeOrder);
-        }
-
-        return completeOrders;
-    }
-
-
     // to fetch order by id
     // ------------------- Fetch order by id -------------------
     public CompleteOrderView getOrderById(String email, Integer orderId) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UserDoesNotExistException("Customer does not exist");
 
-        Order order = orderRepo.findByIdAndCustomerId(orderId, customer.getId())
+        OrderHistoryRepo.OrderRow order = historyRepo.findOrder(customer.id(), orderId)
                 .orElseThrow(() -> new UserDoesNotExistException("Order not found"));
 
-        return mapOrdersToCompleteOrderView(List.of(order)).get(0);
+        return historyReader.toViews(List.of(order)).get(0);
     }
 
     // to view mst recent orders
     public List<CompleteOrderView> getMostRecentOrders(String email) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UserDoesNotExistException("Customer does not exist");
 
-        List<Order> orders = orderRepo.findByCustomerIdOrderByDateDesc(customer.getId());
+        List<OrderHistoryRepo.OrderRow> orders = historyRepo.findOrdersNewestFirst(customer.id());
         if (orders.isEmpty()) throw new UserDoesNotExistException("No recent orders");
 
-        return mapOrdersToCompleteOrderView(orders);
+        return historyReader.toViews(orders);
     }
 
     // ------------------- Fetch orders sorted by date -------------------
     public List<CompleteOrderView> getOrdersByDate(String email) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UserDoesNotExistException("Customer does not exist");
 
-        List<Order> orders = orderRepo.findByCustomerIdOrderByDateDesc(customer.getId());
+        List<OrderHistoryRepo.OrderRow> orders = historyRepo.findOrdersNewestFirst(customer.id());
         if (orders.isEmpty()) throw new UserDoesNotExistException("No orders placed yet");
 
-        return mapOrdersToCompleteOrderView(orders);
+        return historyReader.toViews(orders);
     }
 
     // find orders by date
     public List<CompleteOrderView> getByOrderDate(String email, LocalDate date){
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UserDoesNotExistException("Customer does not exist");
 
-        List<Order> orders = orderRepo.findByCustomerIdAndOrderDate(customer.getId(), date);
+        List<OrderHistoryRepo.OrderRow> orders = historyRepo.findOrdersOn(customer.id(), date);
         if (orders.isEmpty()) throw new UserDoesNotExistException("No orders placed yet");
 
-        return mapOrdersToCompleteOrderView(orders);
+        return historyReader.toViews(orders);
 
     }
 
     // ------------------- Fetch orders by status -------------------
     public List<CompleteOrderView> getOrdersByStatus(String email, Status status) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UserDoesNotExistException("Customer does not exist");
 
-        List<Order> orders = orderRepo.findByCustomerIdAndStatus(customer.getId(), status.name().toUpperCase());
+        List<OrderHistoryRepo.OrderRow> orders = historyRepo.findOrdersByStatus(customer.id(), status);
         if (orders.isEmpty()) throw new UserDoesNotExistException("No orders with status: " + status);
 
-        return mapOrdersToCompleteOrderView(orders);
+        return historyReader.toViews(orders);
     }
 
 
-    // to view order items
-    public List<OrderItemsResponse> getOrderItems(String email) {
-        CustomerEntity customer = service.getUserByEmail(email);
+    // to view the customer's order items, one keyset page at a time (newest orders first)
+    public KeysetPage<OrderItemsResponse> getOrderItems(String email, String cursor, Integer size) {
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UserDoesNotExistException("Customer does not exist");
 
-        //now we are going to be viewing all customers order items
-        List<OrderItems> response = orderItemsRepo.findAll();
-        if (response.isEmpty()) throw new UserDoesNotExistException("No order items found");
-
-        return mapToOrderItemsResponse(response);
-    }
-
-    private List<OrderItemsResponse> mapToOrderItemsResponse(List<OrderItems> orderItemsList) {
-        List<OrderItemsResponse> orderItemsResponse = new ArrayList<>();
-
-        for (OrderItems item : orderItemsList) {
-            // Map Menu info
-            MenuResponse menuResponse = new MenuResponse(
-                    item.getMenu().getId(),
-                    item.getMenu().getFoodName(),
-                    item.getMenu().getCategory(),
-                    item.getMenu().getIs_available(),
-                    item.getMenu().getPrice(),
-                    item.getMenu().getDescription()
-            );
-
-            // Map Toppings
-            List<ToppingsResponse> toppings = new ArrayList<>();
-            if (item.getToppings() != null) {
-                toppings = item.getToppings().stream()
-                        .map(t -> new ToppingsResponse(t.getId(), t.getName(), t.getPrice()))
-                        .toList();
-            }
-
-            // Build DTO using stored price
-            OrderItemsResponse response = OrderItemsResponse.builder()
-                    .menuItem(menuResponse)
-                    .toppings(toppings)
-                    .quantity(item.getQuantity())
-                    .totalPrice(item.getPrice()) // stored in DB
-                    .build();
-
-            orderItemsResponse.add(response);
-        }
+        // only this customer's items, read through the (customer_id, order_date) index
+        KeysetPage<OrderHistoryRepo.CustomerItemRow> response =
+                historyRepo.findCustomerItemsPage(customer.id(), PageCursor.decode(cursor), PageCursor.pageSize(size));
+        if (cursor == null && response.items().isEmpty()) throw new UserDoesNotExistException("No order items found");
 
-        return orderItemsResponse;
+        return response.map(historyReader::toItemViews);
     }
 
-    // get order items by order id
+    // get order items by order id, only for an order of this customer
     public List<OrderItemsResponse> getOrderItemsByOrderId(String email, Integer orderId) {
         // Get customer
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UserDoesNotExistException("Customer does not exist");
 
-        List<OrderItems> orderItems = orderItemsRepo.findByOrderId(orderId);
+        OrderHistoryRepo.OrderRow order = historyRepo.findOrder(customer.id(), orderId)
+                .orElseThrow(() -> new UserDoesNotExistException("Order not found"));
 
+        List<OrderItemsResponse> orderItems = historyReader.toViews(List.of(order)).get(0).getOrderItems();
         if (orderItems.isEmpty()) {
             throw new UserDoesNotExistException("No items found for this order");
         }
-
-        // Map the order items to DTO
-        return mapToOrderItemsResponse(orderItems);
+        return orderItems;
     }
 
 
-    // view all payment and keep track
-    public List<PaymentResponseWithOrder> viewPaymentRecords(String email) {
-        CustomerEntity customer = service.getUserByEmail(email);
+    // view all payment and keep track, one keyset page at a time (newest first)
+    public KeysetPage<PaymentResponseWithOrder> viewPaymentRecords(String email, String cursor, Integer size) {
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UserDoesNotExistException("Customer does not exist");
 
-        List<PaymentEntity> response = paymentRepo.findByCustomerId(customer.getId());
-        if (response.isEmpty()) throw new UserDoesNotExistException("No payments found");
+        KeysetPage<OrderHistoryRepo.PaymentRow> response =
+                historyRepo.findPaymentsPage(customer.id(), PageCursor.decode(cursor), PageCursor.pageSize(size));
+        if (cursor == null && response.items().isEmpty()) throw new UserDoesNotExistException("No payments found");
 
-        return mapToCustomerPayments(response);
+        return response.map(historyReader::toPaymentViews);
     }
 
-    private List<PaymentResponseWithOrder> mapToCustomerPayments(List<PaymentEntity> paymentEntities) {
-
-        List<PaymentResponseWithOrder> response = new ArrayList<>();
-
-        for (PaymentEntity payment : paymentEntities) {
-
-            Order order = payment.getOrder();
-
-            // 1. Map order items
-            List<OrderItemsResponse> orderItemsResponses = new ArrayList<>();
-
-            for (OrderItems item : order.getOrderItems()) {
-
-                MenuResponse menuResponse = MenuResponse.builder()
-                        .id(item.getMenu().getId())
-                        .foodName(item.getMenu().getFoodName())
-                        .category(item.getMenu().getCategory())
-                        .is_available(item.getMenu().getIs_available())
-                        .price(item.getMenu().getPrice())
-                        .description(item.getMenu().getDescription())
-                        .build();
-
-                List<ToppingsResponse> toppingsResponses = new ArrayList<>();
-                if (item.getToppings() != null) {
-                    toppingsResponses = item.getToppings().stream()
-                            .map(t -> ToppingsResponse.builder()
-                                    .id(t.getId())
-                                    .name(t.getName())
-                                    .price(t.getPrice())
-                                    .build())
-                            .toList();
-                }
-
-                orderItemsResponses.add(
-                        OrderItemsResponse.builder()
-                                .menuItem(menuResponse)
-                                .toppings(toppingsResponses)
-                                .quantity(item.getQuantity())
-                                .totalPrice(item.getPrice())
-                                .build()
-                );
-            }
-
-            // 2. Build CompleteOrderView
-            CompleteOrderView completeOrderView = CompleteOrderView.builder()
-                    .date(order.getDate())
-                    .status(order.getStatus())
-                    .totalAmount(order.getTotalAmount())
-                    .orderItems(orderItemsResponses)
-                    .build();
-
-            // 3. Build PaymentResponseWithOrder
-            PaymentResponseWithOrder paymentResponse = PaymentResponseWithOrder.builder()
-                    .id(payment.getId())
-                    .amountpaid(payment.getAmountpaid())
-                    .paymentMethod(payment.getPaymentMethod())
-                    .paymentDate(payment.getPaymentDate())
-                    .orderId(order.getId())
-                    .completeOrderViews(List.of(completeOrderView))
-                    .build();
-
-            response.add(paymentResponse);
-        }
-
-        return response;
-    }
-
-
     // view payments by date
     public List<PaymentResponseWithOrder> getPaymentsByDate(String email, LocalDate date) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UserDoesNotExistException("Customer does not exist");
 
-        List<PaymentEntity> response = paymentRepo.findByPaymentDate(date);
-        if (response == null) throw new UserDoesNotExistException("No payments found");
-        return mapToCustomerPayments(response);
+        return historyReader.toPaymentViews(historyRepo.findPaymentsOn(customer.id(), date));
     }
 
     // to view mst recent payments
     public List<PaymentResponseWithOrder> getMostRecentPayments(String email) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UserDoesNotExistException("Customer does not exist");
 
-        List<PaymentEntity> response = paymentRepo.findTop5MostRecentPayments();
-        if (response == null) throw new UserDoesNotExistException("No payments found");
-
-        return mapToCustomerPayments(response);
+        // the first page of the payment history, cut to the most recent few
+        return historyReader.toPaymentViews(historyRepo.findPaymentsPage(customer.id(), null, RECENT_PAYMENTS).items());
     }
 
     // ------------------- Fetch payments by order id -------------------
     public PaymentResponseWithOrder getByOrderId_payments(String email, Integer orderId) {
-        CustomerEntity customer = service.getUserByEmail(email);
+        UserSnapshot customer = authenticatedCustomer.customer(email);
         if (customer == null) throw new UserDoesNotExistException("Customer does not exist");
 
-        PaymentEntity payment = paymentRepo.findByOrderId(orderId);
-        if (payment == null)  throw new UserDoesNotExistException("No payments found");
+        OrderHistoryRepo.PaymentRow payment = historyRepo.findPaymentForOrder(customer.id(), orderId)
+                .orElseThrow(() -> new UserDoesNotExistException("No payments found"));
 
-        return mapToCustomerPayments(List.of(payment)).get(0);
+        return historyReader.toPaymentViews(List.of(payment)).get(0);
     }
 
 
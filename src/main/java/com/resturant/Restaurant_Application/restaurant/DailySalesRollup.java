@@ -0,0 +1,52 @@
+package com.resturant.Restaurant_Application.restaurant;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Paid sales summed per day, channel and menu item. Rows are only ever written through
+ * DailySalesRollupRepo (upserts on payment, and the rebuild job); this mapping exists for the schema.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "daily_sales_rollup")
+public class DailySalesRollup {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+
+    @Column(name = "revenue", precision = 12, scale = 2, nullable = false)
+    private BigDecimal revenue;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Embeddable
+    public static class Key implements Serializable {
+
+        // order date of the paid order, so trends line up with when the order was placed
+        @Column(name = "sale_date", nullable = false)
+        private LocalDate saleDate;
+
+        // CUSTOMER or RESTAURANT
+        @Column(name = "channel", length = 16, nullable = false)
+        private String channel;
+
+        // 0 for order lines without a menu item
+        @Column(name = "menu_id", nullable = false)
+        private Integer menuId;
+    }
+}
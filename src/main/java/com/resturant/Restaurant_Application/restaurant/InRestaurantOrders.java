@@ -21,7 +21,9 @@ import java.util.Set;
 @NoArgsConstructor
 @Entity
 @Builder
-@Table(name = "in_restaurant_orders")
+@Table(name = "in_restaurant_orders", indexes = {
+        @Index(name = "idx_in_restaurant_order_date", columnList = "order_date")
+})
 public class InRestaurantOrders {
 
     @Id
@@ -5,6 +5,7 @@ import com.resturant.Restaurant_Application.customer.entity.CustomerEntity;
 import com.resturant.Restaurant_Application.customer.entity.Enum.Role;
 import com.resturant.Restaurant_Application.customer.entity.dtos.*;
 import com.resturant.Restaurant_Application.customer.security.TokenService;
+import com.resturant.Restaurant_Application.customer.security.UserSnapshot;
 import com.resturant.Restaurant_Application.customer.service.CustomerCreationService;
 import com.resturant.Restaurant_Application.restaurant.admin.dtos.AdminRequest;
 import com.resturant.Restaurant_Application.restaurant.admin.dtos.AdminResponse;
@@ -22,7 +23,7 @@ public class AdminController {
     private final TokenService tokenService;
 
     // --------- Extract Admin from JWT ---------
-    private AdminEntity getAdminFromToken(String authHeader) {
+    private UserSnapshot getAdminFromToken(String authHeader) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             throw new IllegalArgumentException("Missing or invalid Authorization header");
         }
@@ -56,10 +57,10 @@ public class AdminController {
             @RequestBody PasswordUpdateRequest request,
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
 
-        AdminEntity admin = getAdminFromToken(authHeader);
+        UserSnapshot admin = getAdminFromToken(authHeader);
 
         PasswordUpdateResponse response =
-                service.passwordUpdate(request, admin.getEmail());
+                service.passwordUpdate(request, admin.email());
 
         return ResponseEntity.ok(response);
     }
@@ -69,9 +70,9 @@ public class AdminController {
     public ResponseEntity<String> welcomeAdmin(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
 
-        AdminEntity admin = getAdminFromToken(authHeader);
+        UserSnapshot admin = getAdminFromToken(authHeader);
 
-        if (admin.getRole() == Role.ADMIN) {
+        if (admin.role() == Role.ADMIN) {
             return ResponseEntity.ok("Welcome Admin!");
         }
 
@@ -6,13 +6,15 @@ import com.resturant.Restaurant_Application.customer.entity.dtos.LoginRequest;
 import com.resturant.Restaurant_Application.customer.entity.dtos.LoginResponse;
 import com.resturant.Restaurant_Application.customer.entity.dtos.PasswordUpdateRequest;
 import com.resturant.Restaurant_Application.customer.entity.dtos.PasswordUpdateResponse;
+import com.resturant.Restaurant_Application.customer.security.PasswordHasher;
 import com.resturant.Restaurant_Application.customer.security.TokenService;
+import com.resturant.Restaurant_Application.customer.security.UserCache;
+import com.resturant.Restaurant_Application.customer.security.UserSnapshot;
 import com.resturant.Restaurant_Application.restaurant.admin.dtos.AdminRequest;
 import com.resturant.Restaurant_Application.restaurant.admin.dtos.AdminResponse;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -21,13 +23,28 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class AdminService {
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final AdminRepo adminRepo;
     private final TokenService tokenService;
+    private final UserCache userCache;
 
     // ----------------- VERIFY PASSWORD -----------------
     public boolean isPasswordValid(AdminEntity user, String rawPassword) {
-        return passwordEncoder.matches(rawPassword, user.getPassword());
+        return passwordHasher.matches(rawPassword, user.getPassword());
+    }
+
+    public boolean isPasswordValid(UserSnapshot user, String rawPassword) {
+        return passwordHasher.matches(rawPassword, user.passwordHash());
+    }
+
+    // same upgrade-on-login as for customers; see PasswordHasher.rehash
+    private void upgradePasswordHash(UserSnapshot cached, String rawPassword) {
+        passwordHasher.rehash(rawPassword, cached.passwordHash()).ifPresent(hash -> {
+            AdminEntity user = loadByEmail(cached.email());
+            user.setPassword(hash);
+            adminRepo.save(user);
+            userCache.evictAdmin(user.getEmail());
+        });
     }
 
     // ----------------- GET CUSTOMER -----------------
@@ -36,7 +53,12 @@ public class AdminService {
                 .orElseThrow(() -> new UserDoesNotExistException("Customer not found"));
     }
 
-    public AdminEntity getUserByEmail(String email) {
+    // served from the user cache as an immutable snapshot; load the entity to change the admin
+    public UserSnapshot getUserByEmail(String email) {
+        return userCache.admin(email, this::loadByEmail);
+    }
+
+    private AdminEntity loadByEmail(String email) {
         return adminRepo.findByEmail(email)
                 .orElseThrow(() -> new UserDoesNotExistException("Customer not found"));
     }
@@ -52,7 +74,7 @@ public class AdminService {
         adminEntity.setName(adminRequest.getName());
         adminEntity.setEmail(adminRequest.getEmail());
         adminEntity.setPhoneNumber(adminRequest.getPhoneNumber());
-        adminEntity.setPassword(passwordEncoder.encode(adminRequest.getPassword()));
+        adminEntity.setPassword(passwordHasher.encode(adminRequest.getPassword()));
 
         adminRepo.save(adminEntity);
 
@@ -71,15 +93,17 @@ public class AdminService {
 
     public PasswordUpdateResponse passwordUpdate(PasswordUpdateRequest request, String email) {
 
-        AdminEntity customer = getUserByEmail(email);
+        AdminEntity customer = loadByEmail(email);
 
         if (!isPasswordValid(customer, request.getOldPassword())) {
             log.warn("Password update failed: incorrect old password for user {}", email);
             throw new UserDoesNotExistException("Old password doesn't match");
         }
 
-        customer.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        customer.setPassword(passwordHasher.encode(request.getNewPassword()));
         adminRepo.save(customer);
+        userCache.evictAdmin(email);
+        tokenService.revokeAccessTokens(email);
 
         log.info("Password updated successfully for user {}", email);
 
@@ -97,17 +121,18 @@ public class AdminService {
             throw new UserDoesNotExistException("Please enter your credentials");
         }
 
-        AdminEntity customer = getUserByEmail(loginRequest.getEmail());
+        UserSnapshot customer = getUserByEmail(loginRequest.getEmail());
 
         if (!isPasswordValid(customer, loginRequest.getPassword())) {
             log.warn("Login failed: incorrect password for user {}", loginRequest.getEmail());
             throw new UserDoesNotExistException("Password doesn't match");
         }
+        upgradePasswordHash(customer, loginRequest.getPassword());
 
         String accessToken = tokenService.generateAccessTokenForAdmin(customer);
-        String refreshToken = tokenService.generateRefreshTokenForAdmin(customer).getToken();
+        String refreshToken = tokenService.generateRefreshTokenForAdmin(adminRepo.getReferenceById(customer.id())).getToken();
 
-        log.info("Admin logged in successfully: {}", customer.getEmail());
+        log.info("Admin logged in successfully: {}", customer.email());
 
         return LoginResponse.builder()
                 .accessToken(accessToken)
@@ -0,0 +1,151 @@
+package com.resturant.Restaurant_Application.restaurant.admin.repo;
+
+import com.resturant.Restaurant_Application.customer.entity.Enum.Status;
+import com.resturant.Restaurant_Application.customer.entity.dtos.KeysetPage;
+import com.resturant.Restaurant_Application.customer.entity.dtos.PageCursor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Customer and in-restaurant orders as one report, newest first. Both tables are filtered on their
+ * own (date range, status) before the UNION, so each side can use its order_date index.
+ * Order ids overlap between the two tables, so rows are told apart by row_key = id * 2 for customer
+ * orders and id * 2 + 1 for in-restaurant ones; the page cursor is (order_date, row_key).
+ * The items column relies on the group_concat_max_len every pooled connection is opened with
+ * (spring.datasource.hikari.connection-init-sql); MySQL's 1024-byte default would cut long orders short.
+ */
+@Repository
+public class AllOrdersReportRepo {
+
+    public enum Type { CUSTOMER, RESTAURANT }
+
+    private static final String CUSTOMER_ORDERS = """
+            SELECT o.id, 'CUSTOMER' AS type, o.id * 2 AS row_key, c.name AS customer_name, c.email AS customer_email,
+                   o.order_date, o.total_amount, o.order_status,
+                   (SELECT GROUP_CONCAT(CONCAT(COALESCE(m.food_name, ''), ' x', oi.quantity,
+                               COALESCE(CONCAT(' (Toppings: ',
+                                   (SELECT GROUP_CONCAT(t.name ORDER BY t.id SEPARATOR ', ')
+                                    FROM order_item_toppings oit JOIN toppings t ON t.id = oit.topping_id
+                                    WHERE oit.order_item_id = oi.id), ')'), ''))
+                           ORDER BY oi.id SEPARATOR '; ')
+                    FROM order_items oi LEFT JOIN menu m ON m.id = oi.menu_id
+                    WHERE oi.order_id = o.id) AS items
+            FROM order_table o LEFT JOIN customer c ON c.id = o.customer_id
+            WHERE 1 = 1
+            """;
+
+    private static final String RESTAURANT_ORDERS = """
+            SELECT o.id, 'RESTAURANT' AS type, o.id * 2 + 1 AS row_key, NULL AS customer_name, NULL AS customer_email,
+                   o.order_date, o.price AS total_amount, o.order_status,
+                   CONCAT(COALESCE(m.food_name, ''),
+                          COALESCE(CONCAT(' (Toppings: ',
+                              (SELECT GROUP_CONCAT(t.name ORDER BY t.id SEPARATOR ', ')
+                               FROM order_toppings ot JOIN toppings t ON t.id = ot.topping_id
+                               WHERE ot.order_id = o.id), ')'), '')) AS items
+            FROM in_restaurant_orders o LEFT JOIN menu m ON m.id = o.menu_id
+            WHERE 1 = 1
+            """;
+
+    private static final String NEWEST_FIRST = " ORDER BY order_date DESC, row_key DESC";
+
+    private static final RowMapper<OrderReportRow> ORDER_REPORT_ROW = (rs, i) -> {
+        Timestamp orderDate = rs.getTimestamp("order_date");
+        return new OrderReportRow(
+                rs.getInt("id"),
+                Type.valueOf(rs.getString("type")),
+                rs.getString("customer_name"),
+                rs.getString("customer_email"),
+                orderDate == null ? null : orderDate.toLocalDateTime(),
+                rs.getBigDecimal("total_amount"),
+                rs.getString("items"),
+                rs.getString("order_status"));
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    // same data source, but statements stream row by row (MySQL Connector/J's forward-only mode)
+    private final NamedParameterJdbcTemplate streamingTemplate;
+
+    public AllOrdersReportRepo(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(Integer.MIN_VALUE);
+        this.streamingTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    public record OrderReportRow(Integer orderId, Type type, String customerName, String customerEmail,
+                                 LocalDateTime date, BigDecimal totalAmount, String items, String status) {
+
+        long rowKey() {
+            return orderId * 2L + (type == Type.RESTAURANT ? 1 : 0);
+        }
+    }
+
+    /**
+     * Report filters; every field is optional. from/to are inclusive days,
+     * type limits the report to one kind of order.
+     */
+    public record Filter(LocalDate from, LocalDate to, Status status, Type type) {}
+
+    public KeysetPage<OrderReportRow> findPage(Filter filter, PageCursor cursor, int size) {
+        MapSqlParameterSource params = params(filter).addValue("limit", size + 1);
+        if (cursor != null) {
+            params.addValue("cursorDate", cursor.date()).addValue("cursorKey", cursor.id());
+        }
+
+        // each branch is cut to one page on its own index before the two are merged
+        String sql = union(filter, cursor != null,
+                branch -> branch + " ORDER BY o.order_date DESC, o.id DESC LIMIT :limit")
+                + NEWEST_FIRST + " LIMIT :limit";
+
+        return KeysetPage.of(jdbcTemplate.query(sql, params, ORDER_REPORT_ROW), size,
+                row -> new PageCursor(row.date(), Math.toIntExact(row.rowKey())));
+    }
+
+    /** Streams every matching row, newest first; the consumer runs while the connection is held. */
+    public void streamAll(Filter filter, Consumer<OrderReportRow> consumer) {
+        String sql = union(filter, false, branch -> branch) + NEWEST_FIRST;
+        streamingTemplate.query(sql, params(filter), rs -> {
+            consumer.accept(ORDER_REPORT_ROW.mapRow(rs, 0));
+        });
+    }
+
+    private static String union(Filter filter, boolean afterCursor, UnaryOperator<String> shape) {
+        String customer = shape.apply(CUSTOMER_ORDERS + conditions(filter, afterCursor, "o.id * 2"));
+        String restaurant = shape.apply(RESTAURANT_ORDERS + conditions(filter, afterCursor, "o.id * 2 + 1"));
+
+        if (filter.type() == Type.CUSTOMER) return "SELECT * FROM (" + customer + ") report";
+        if (filter.type() == Type.RESTAURANT) return "SELECT * FROM (" + restaurant + ") report";
+        return "(" + customer + ") UNION ALL (" + restaurant + ")";
+    }
+
+    private static String conditions(Filter filter, boolean afterCursor, String rowKey) {
+        StringBuilder sql = new StringBuilder();
+        if (filter.from() != null) sql.append(" AND o.order_date >= :from");
+        if (filter.to() != null) sql.append(" AND o.order_date < :to");
+        if (filter.status() != null) sql.append(" AND o.order_status = :status");
+        if (afterCursor) {
+            sql.append(" AND (o.order_date < :cursorDate OR (o.order_date = :cursorDate AND ")
+                    .append(rowKey).append(" < :cursorKey))");
+        }
+        return sql.toString();
+    }
+
+    private static MapSqlParameterSource params(Filter filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (filter.from() != null) params.addValue("from", filter.from().atStartOfDay());
+        if (filter.to() != null) params.addValue("to", filter.to().plusDays(1).atStartOfDay());
+        if (filter.status() != null) params.addValue("status", filter.status().name());
+        return params;
+    }
+}
@@ -0,0 +1,101 @@
+package com.resturant.Restaurant_Application.restaurant.admin.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Writes to daily_sales_rollup. Payments add their order's lines with INSERT ... SELECT ...
+ * ON DUPLICATE KEY UPDATE, so the rollup is maintained in the paying transaction.
+ * Reads go through SalesReportRepo.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DailySalesRollupRepo {
+
+    private static final String UPSERT = " ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), revenue = revenue + VALUES(revenue)";
+
+    private static final String ADD_CUSTOMER_ORDER = """
+            INSERT INTO daily_sales_rollup (sale_date, channel, menu_id, quantity, revenue)
+            SELECT DATE(o.order_date), 'CUSTOMER', COALESCE(oi.menu_id, 0), SUM(oi.quantity), SUM(oi.price)
+            FROM order_table o JOIN order_items oi ON oi.order_id = o.id
+            WHERE o.id = :orderId
+            GROUP BY DATE(o.order_date), COALESCE(oi.menu_id, 0)
+            """ + UPSERT;
+
+    private static final String ADD_RESTAURANT_ORDER = """
+            INSERT INTO daily_sales_rollup (sale_date, channel, menu_id, quantity, revenue)
+            SELECT DATE(order_date), 'RESTAURANT', menu_id, quantity, price
+            FROM in_restaurant_orders
+            WHERE id = :orderId
+            """ + UPSERT;
+
+    // rebuild sources: only orders that have a payment, as on the incremental path
+    private static final String REBUILD_CUSTOMER = """
+            INSERT INTO daily_sales_rollup (sale_date, channel, menu_id, quantity, revenue)
+            SELECT DATE(o.order_date), 'CUSTOMER', COALESCE(oi.menu_id, 0), SUM(oi.quantity), SUM(oi.price)
+            FROM order_table o
+            JOIN payment_entity p ON p.order_id = o.id
+            JOIN order_items oi ON oi.order_id = o.id
+            WHERE o.order_date >= :from AND o.order_date < :to
+            GROUP BY DATE(o.order_date), COALESCE(oi.menu_id, 0)
+            """ + UPSERT;
+
+    private static final String REBUILD_RESTAURANT = """
+            INSERT INTO daily_sales_rollup (sale_date, channel, menu_id, quantity, revenue)
+            SELECT DATE(o.order_date), 'RESTAURANT', o.menu_id, SUM(o.quantity), SUM(o.price)
+            FROM in_restaurant_orders o
+            JOIN in_restaurant_payments p ON p.in_restaurant_order_id = o.id
+            WHERE o.order_date >= :from AND o.order_date < :to
+            GROUP BY DATE(o.order_date), o.menu_id
+            """ + UPSERT;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /* ===================== INCREMENTAL ===================== */
+
+    public void addCustomerOrder(Integer orderId) {
+        jdbcTemplate.update(ADD_CUSTOMER_ORDER, new MapSqlParameterSource("orderId", orderId));
+    }
+
+    public void addRestaurantOrder(Integer orderId) {
+        jdbcTemplate.update(ADD_RESTAURANT_ORDER, new MapSqlParameterSource("orderId", orderId));
+    }
+
+    /* ===================== REBUILD ===================== */
+
+    /** Recomputes [from, to) from the order tables; run inside one transaction so readers never see a gap. */
+    public void rebuild(LocalDate from, LocalDate to) {
+        MapSqlParameterSource range = new MapSqlParameterSource()
+                .addValue("from", from.atStartOfDay())
+                .addValue("to", to.atStartOfDay())
+                .addValue("fromDate", Date.valueOf(from))
+                .addValue("toDate", Date.valueOf(to));
+
+        jdbcTemplate.update("DELETE FROM daily_sales_rollup WHERE sale_date >= :fromDate AND sale_date < :toDate", range);
+        jdbcTemplate.update(REBUILD_CUSTOMER, range);
+        jdbcTemplate.update(REBUILD_RESTAURANT, range);
+    }
+
+    public boolean isEmpty() {
+        Integer any = jdbcTemplate.getJdbcTemplate()
+                .queryForObject("SELECT EXISTS (SELECT 1 FROM daily_sales_rollup)", Integer.class);
+        return any == null || any == 0;
+    }
+
+    // earliest order date across both channels, null when there are no orders at all
+    public LocalDate firstOrderDate() {
+        Date first = jdbcTemplate.getJdbcTemplate().queryForObject("""
+                SELECT MIN(d) FROM (
+                    SELECT MIN(DATE(order_date)) AS d FROM order_table
+                    UNION ALL
+                    SELECT MIN(DATE(order_date)) AS d FROM in_restaurant_orders
+                ) first_orders
+                """, Date.class);
+        return first == null ? null : first.toLocalDate();
+    }
+}
@@ -25,6 +25,12 @@ public interface InRestaurantOrderRepo extends JpaRepository<InRestaurantOrders,
             LocalDateTime end
     );
 
+    // half-open [start, end): a day, week or month without counting the next period's first instant
+    List<InRestaurantOrders> findByOrderDateGreaterThanEqualAndOrderDateLessThanOrderByOrderDate(
+            LocalDateTime start,
+            LocalDateTime end
+    );
+
     long countByOrderDateBetween(
             LocalDateTime start,
             LocalDateTime end
@@ -69,9 +75,5 @@ public interface InRestaurantOrderRepo extends JpaRepository<InRestaurantOrders,
             Status status
     );
 
-    @Query("SELECT o.menu.foodName, SUM(o.quantity) as totalSold, SUM(o.price) as revenue " +
-            "FROM InRestaurantOrders o " +
-            "GROUP BY o.menu.foodName " +
-            "ORDER BY totalSold DESC")
-    List<Object[]> getMenuPerformance();
+    // menu performance is read from daily_sales_rollup, see SalesReportRepo.findMenuPerformance
 }
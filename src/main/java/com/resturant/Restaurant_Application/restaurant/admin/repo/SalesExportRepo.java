@@ -0,0 +1,79 @@
+package com.resturant.Restaurant_Application.restaurant.admin.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only reads of in-restaurant sales for the report exports. Rows are handed to the
+ * caller one at a time while the result set is still open, so nothing accumulates in memory.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesExportRepo {
+
+    // MySQL Connector/J streams row by row for this fetch size; any positive value would buffer
+    // the whole result client-side unless every statement was switched to server-side cursors
+    private static final int STREAM_ROWS = Integer.MIN_VALUE;
+
+    // toppings relies on the group_concat_max_len set on every pooled connection (connection-init-sql)
+    private static final String SALES_LINES = """
+            SELECT o.id, o.order_date, m.food_name, o.quantity, o.price, o.order_status,
+                   (SELECT GROUP_CONCAT(t.name ORDER BY t.id SEPARATOR ', ')
+                    FROM order_toppings ot JOIN toppings t ON t.id = ot.topping_id
+                    WHERE ot.order_id = o.id) AS toppings
+            FROM in_restaurant_orders o
+            LEFT JOIN menu m ON m.id = o.menu_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record SalesLine(Integer orderId, LocalDateTime orderDate, String foodName, String toppings,
+                            Integer quantity, BigDecimal price, String status) {}
+
+    /**
+     * Streams every in-restaurant order placed in [from, to), oldest first. Either bound may be null.
+     * The consumer runs while the connection is held, so it should only write output.
+     */
+    public void streamSalesLines(LocalDate from, LocalDate to, Consumer<SalesLine> consumer) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SALES_LINES).append("WHERE 1 = 1");
+        if (from != null) {
+            sql.append(" AND o.order_date >= ?");
+            args.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(" AND o.order_date < ?");
+            args.add(Timestamp.valueOf(to.atStartOfDay()));
+        }
+        sql.append(" ORDER BY o.order_date, o.id");
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_ROWS);
+            for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+            return ps;
+        }, rs -> {
+            Timestamp orderDate = rs.getTimestamp("order_date");
+            consumer.accept(new SalesLine(
+                    rs.getInt("id"),
+                    orderDate == null ? null : orderDate.toLocalDateTime(),
+                    rs.getString("food_name"),
+                    rs.getString("toppings"),
+                    rs.getInt("quantity"),
+                    rs.getBigDecimal("price"),
+                    rs.getString("order_status")));
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package com.resturant.Restaurant_Application.restaurant.admin.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Grouped sales queries for the admin reports. They read daily_sales_rollup (kept up to date by
+ * DailySalesRollupRepo on every payment), so a report scans a few rows per day instead of every order.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesReportRepo {
+
+    // rollup channels
+    public static final String CUSTOMER = "CUSTOMER";
+    public static final String RESTAURANT = "RESTAURANT";
+
+    private static final String DAILY_SALES = """
+            SELECT sale_date AS day,
+                   SUM(CASE WHEN channel = 'CUSTOMER' THEN revenue ELSE 0 END) AS customer_sales,
+                   SUM(CASE WHEN channel = 'RESTAURANT' THEN revenue ELSE 0 END) AS restaurant_sales
+            FROM daily_sales_rollup
+            WHERE sale_date >= :from AND sale_date < :to
+            GROUP BY sale_date
+            ORDER BY sale_date
+            """;
+
+    private static final String MENU_PERFORMANCE = """
+            SELECT m.food_name, SUM(r.quantity) AS total_sold, SUM(r.revenue) AS revenue
+            FROM daily_sales_rollup r JOIN menu m ON m.id = r.menu_id
+            WHERE r.channel = :channel AND r.sale_date >= :from AND r.sale_date < :to
+            GROUP BY m.food_name
+            ORDER BY total_sold DESC
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record DailySalesRow(LocalDate day, BigDecimal customerSales, BigDecimal restaurantSales) {}
+
+    public record MenuPerformanceRow(String foodName, long totalSold, BigDecimal revenue) {}
+
+    /** Paid customer and in-restaurant sales per day for [from, to); days without sales are absent. */
+    public List<DailySalesRow> findDailySales(LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to));
+
+        return jdbcTemplate.query(DAILY_SALES, params, (rs, i) -> new DailySalesRow(
+                rs.getDate("day").toLocalDate(),
+                rs.getBigDecimal("customer_sales"),
+                rs.getBigDecimal("restaurant_sales")));
+    }
+
+    public List<MenuPerformanceRow> findMenuPerformance(String channel, LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("channel", channel)
+                .addValue("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to));
+
+        return jdbcTemplate.query(MENU_PERFORMANCE, params, (rs, i) -> new MenuPerformanceRow(
+                rs.getString("food_name"),
+                rs.getLong("total_sold"),
+                rs.getBigDecimal("revenue")));
+    }
+}
@@ -6,9 +6,11 @@ import com.resturant.Restaurant_Application.customer.entity.Order;
 import com.resturant.Restaurant_Application.customer.entity.OrderItems;
 import com.resturant.Restaurant_Application.customer.entity.PaymentEntity;
 import com.resturant.Restaurant_Application.customer.entity.dtos.*;
+import com.resturant.Restaurant_Application.customer.entity.repo.OrderHistoryRepo;
 import com.resturant.Restaurant_Application.customer.entity.repo.OrderItemsRepo;
 import com.resturant.Restaurant_Application.customer.entity.repo.OrderRepo;
 import com.resturant.Restaurant_Application.customer.entity.repo.PaymentRepo;
+import com.resturant.Restaurant_Application.customer.service.OrderHistoryReader;
 import com.resturant.Restaurant_Application.restaurant.Menu;
 import com.resturant.Restaurant_Application.restaurant.Toppings;
 import com.resturant.Restaurant_Application.restaurant.admin.repo.MenuRepo;
@@ -22,6 +24,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,14 +38,17 @@ public class AdminOrderService {
     private final ToppingsRepo toppingsRepo;
     private final OrderRepo orderRepo;
     private final PaymentRepo paymentRepo;
+    private final OrderHistoryRepo historyRepo;
+    private final OrderHistoryReader historyReader;
 
     // ------------------- Orders -------------------
 
-    public List<CompleteOrderView> getAllOrders() {
-        log.info("Fetching all orders...");
-        List<Order> orders = orderRepo.findAllOrdersOrderByDateDesc();
-        if (orders.isEmpty()) throw new UserDoesNotExistException("No orders found");
-        return mapOrdersToCompleteOrderView(orders);
+    public KeysetPage<CompleteOrderView> getAllOrders(String cursor, Integer size) {
+        log.info("Fetching all orders, page after {}", cursor);
+        KeysetPage<OrderHistoryRepo.OrderRow> orders =
+                historyRepo.findAllOrdersPage(PageCursor.decode(cursor), PageCursor.pageSize(size));
+        if (cursor == null && orders.items().isEmpty()) throw new UserDoesNotExistException("No orders found");
+        return orders.map(historyReader::toViews);
     }
 
     public CompleteOrderView getOrderById(Integer orderId) {
@@ -68,11 +74,12 @@ public class AdminOrderService {
 
     // ------------------- Payments -------------------
 
-    public List<PaymentResponseWithOrder> getAllPayments() {
-        log.info("Fetching all payments...");
-        List<PaymentEntity> payments = paymentRepo.findAll();
-        if (payments.isEmpty()) throw new UserDoesNotExistException("No payments found");
-        return mapToCustomerPayments(payments);
+    public KeysetPage<PaymentResponseWithOrder> getAllPayments(String cursor, Integer size) {
+        log.info("Fetching all payments, page after {}", cursor);
+        KeysetPage<OrderHistoryRepo.PaymentRow> payments =
+                historyRepo.findPaymentsPage(null, PageCursor.decode(cursor), PageCursor.pageSize(size));
+        if (cursor == null && payments.items().isEmpty()) throw new UserDoesNotExistException("No payments found");
+        return payments.map(historyReader::toPaymentViews);
     }
 
     public PaymentResponseWithOrder getPaymentByOrderId(Integer orderId) {
@@ -91,25 +98,42 @@ public class AdminOrderService {
 
     // ------------------- Customers -------------------
 
-    public List<CustomerOrdersResponse> getAllCustomersWithOrders() {
-        log.info("Fetching all customers with orders...");
-        List<Order> orders = orderRepo.findAll();
-        if (orders.isEmpty()) throw new UserDoesNotExistException("No orders found");
-
-        List<CustomerOrdersResponse> response = new ArrayList<>();
-        orders.stream().map(Order::getCustomer).distinct().forEach(customer -> {
-            List<Order> customerOrders = orderRepo.findByCustomer_Id(customer.getId());
-            List<CompleteOrderView> completeOrders = mapOrdersToCompleteOrderView(customerOrders);
-
-            response.add(CustomerOrdersResponse.builder()
-                    .customerId(customer.getId())
-                    .customerEmail(customer.getEmail())
-                    .customerName(customer.getName())
-                    .orders(completeOrders)
-                    .build());
+    // pages through the customers who have ordered, by id, with one summary row each from a single
+    // aggregate query, so a page costs the same however many years of orders its customers have
+    public KeysetPage<CustomerOrdersResponse> getAllCustomersWithOrders(String cursor, Integer size) {
+        log.info("Fetching customers with orders, page after {}", cursor);
+        KeysetPage<OrderHistoryRepo.CustomerRow> customers =
+                historyRepo.findCustomersWithOrdersPage(PageCursor.decode(cursor), PageCursor.pageSize(size));
+        if (cursor == null && customers.items().isEmpty()) throw new UserDoesNotExistException("No orders found");
+
+        return customers.map(rows -> {
+            Map<Integer, OrderHistoryRepo.OrderSummaryRow> summaries = historyRepo.findOrderSummaries(
+                    rows.stream().map(OrderHistoryRepo.CustomerRow::id).toList());
+
+            return rows.stream()
+                    .map(customer -> {
+                        OrderHistoryRepo.OrderSummaryRow summary = summaries.get(customer.id());
+                        return CustomerOrdersResponse.builder()
+                                .customerId(customer.id())
+                                .customerEmail(customer.email())
+                                .customerName(customer.name())
+                                .orderCount(summary == null ? 0 : summary.orderCount())
+                                .lastOrderDate(summary == null ? null : summary.lastOrderDate())
+                                .totalAmount(summary == null ? BigDecimal.ZERO : summary.totalAmount())
+                                .ordersUrl("/api/admin/orders/customers/" + customer.id() + "/orders")
+                                .build();
+                    })
+                    .toList();
         });
+    }
 
-        return response;
+    // one customer's orders, paged newest first like the full order list
+    public KeysetPage<CompleteOrderView> getCustomerOrders(Integer customerId, String cursor, Integer size) {
+        log.info("Fetching orders of customer {}, page after {}", customerId, cursor);
+        KeysetPage<OrderHistoryRepo.OrderRow> orders =
+                historyRepo.findOrdersPage(customerId, PageCursor.decode(cursor), PageCursor.pageSize(size));
+        if (cursor == null && orders.items().isEmpty()) throw new UserDoesNotExistException("No orders found for customer " + customerId);
+        return orders.map(historyReader::toViews);
     }
 
     // ------------------- Private Mapping -------------------
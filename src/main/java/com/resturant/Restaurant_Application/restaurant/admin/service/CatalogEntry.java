@@ -0,0 +1,13 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+import java.math.BigDecimal;
+
+/**
+ * What order placement needs to know about a menu item or topping: its id, current price and availability.
+ */
+public record CatalogEntry(
+        Integer id,
+        String name,
+        BigDecimal price,
+        boolean available
+) {}
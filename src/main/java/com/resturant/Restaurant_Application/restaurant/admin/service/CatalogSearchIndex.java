@@ -0,0 +1,162 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable inverted index over catalog entries, built once per catalog snapshot.
+ * Query tokens match vocabulary terms exactly, by prefix, or within a small edit distance,
+ * weighted by the field they were found in. A plain substring hit on a substring field is
+ * also accepted so results stay a superset of the old LIKE %keyword% queries.
+ */
+public final class CatalogSearchIndex<T> {
+
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int FUZZY = 1;
+
+    /** A searchable text field of an entry and how much a hit in it is worth. */
+    public record Field<T>(Function<T, String> value, int weight, boolean substring) {}
+
+    private record Posting(int doc, int weight) {}
+
+    private final List<T> documents;
+    private final List<String> substringText;
+    private final NavigableMap<String, List<Posting>> postings = new TreeMap<>();
+
+    private CatalogSearchIndex(List<T> documents, List<Field<T>> fields) {
+        this.documents = List.copyOf(documents);
+        this.substringText = new ArrayList<>(documents.size());
+
+        for (int doc = 0; doc < this.documents.size(); doc++) {
+            T entry = this.documents.get(doc);
+            StringBuilder substring = new StringBuilder();
+
+            for (Field<T> field : fields) {
+                String text = normalize(field.value().apply(entry));
+                if (field.substring()) substring.append(text).append('\n');
+
+                for (String token : tokenize(text)) {
+                    List<Posting> list = postings.computeIfAbsent(token, k -> new ArrayList<>());
+                    list.add(new Posting(doc, field.weight()));
+                }
+            }
+            substringText.add(substring.toString());
+        }
+    }
+
+    public static <T> CatalogSearchIndex<T> build(List<T> documents, List<Field<T>> fields) {
+        return new CatalogSearchIndex<>(documents, fields);
+    }
+
+    /* ===================== SEARCH ===================== */
+
+    /**
+     * Returns entries matching every query token (or containing the whole keyword),
+     * best matches first; ties keep catalog order.
+     */
+    public List<T> search(String keyword) {
+        String query = normalize(keyword);
+        List<String> tokens = tokenize(query);
+
+        int size = documents.size();
+        int[] score = new int[size];
+        int[] matchedTokens = new int[size];
+
+        for (String token : tokens) {
+            int[] best = new int[size];
+            collect(postings.get(token), EXACT, best);
+            for (List<Posting> list : postings.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                collect(list, PREFIX, best);
+            }
+
+            int allowed = allowedTypos(token);
+            if (allowed > 0) {
+                for (Map.Entry<String, List<Posting>> term : postings.entrySet()) {
+                    String candidate = term.getKey();
+                    if (Math.abs(candidate.length() - token.length()) <= allowed
+                            && editDistance(token, candidate, allowed) <= allowed) {
+                        collect(term.getValue(), FUZZY, best);
+                    }
+                }
+            }
+
+            for (int doc = 0; doc < size; doc++) {
+                if (best[doc] > 0) {
+                    score[doc] += best[doc];
+                    matchedTokens[doc]++;
+                }
+            }
+        }
+
+        List<Integer> hits = new ArrayList<>();
+        for (int doc = 0; doc < size; doc++) {
+            boolean substringHit = substringText.get(doc).contains(query);
+            if (substringHit) score[doc] += 1;
+            if (substringHit || (!tokens.isEmpty() && matchedTokens[doc] == tokens.size())) {
+                hits.add(doc);
+            }
+        }
+
+        return hits.stream()
+                .sorted(Comparator.comparingInt((Integer doc) -> -score[doc]).thenComparingInt(doc -> doc))
+                .map(documents::get)
+                .toList();
+    }
+
+    private void collect(List<Posting> list, int matchScore, int[] best) {
+        if (list == null) return;
+        for (Posting posting : list) {
+            best[posting.doc()] = Math.max(best[posting.doc()], matchScore * posting.weight());
+        }
+    }
+
+    /* ===================== TEXT HELPERS ===================== */
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    // short words must match exactly or by prefix, otherwise "egg" would also find "eel"
+    private static int allowedTypos(String token) {
+        if (token.length() >= 8) return 2;
+        if (token.length() >= 4) return 1;
+        return 0;
+    }
+
+    /** Optimal string alignment distance, giving up early once it exceeds the limit. */
+    private static int editDistance(String a, String b, int limit) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        IntStream.rangeClosed(0, a.length()).forEach(i -> d[i][0] = i);
+        IntStream.rangeClosed(0, b.length()).forEach(j -> d[0][j] = j);
+
+        for (int i = 1; i <= a.length(); i++) {
+            int rowMin = Integer.MAX_VALUE;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, d[i][j]);
+            }
+            if (rowMin > limit) return rowMin;
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,190 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+import com.resturant.Restaurant_Application.customer.entity.dtos.MenuResponse;
+import com.resturant.Restaurant_Application.customer.entity.dtos.ToppingsResponse;
+import com.resturant.Restaurant_Application.restaurant.Menu;
+import com.resturant.Restaurant_Application.restaurant.Toppings;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable view of the menu and toppings at a given catalog version.
+ * A new instance is built on every admin change, never mutated in place, so readers
+ * on any thread can use it without locking.
+ * The etag is a content hash, so it stays stable across restarts while the catalog is unchanged.
+ * MenuResponse and ToppingsResponse are mutable beans, so every accessor hands out fresh copies
+ * and the instances held here never leave the snapshot.
+ */
+public final class CatalogSnapshot {
+
+    // food name outranks category, which outranks description; only name and category
+    // take part in plain substring matching, as in the old LIKE query
+    private static final List<CatalogSearchIndex.Field<MenuResponse>> MENU_FIELDS = List.of(
+            new CatalogSearchIndex.Field<>(MenuResponse::getFoodName, 3, true),
+            new CatalogSearchIndex.Field<>(MenuResponse::getCategory, 2, true),
+            new CatalogSearchIndex.Field<>(MenuResponse::getDescription, 1, false)
+    );
+
+    private static final List<CatalogSearchIndex.Field<ToppingsResponse>> TOPPING_FIELDS = List.of(
+            new CatalogSearchIndex.Field<>(ToppingsResponse::getName, 1, true)
+    );
+
+    private final long version;
+    private final String etag;
+    private final List<MenuResponse> menu;
+    private final List<ToppingsResponse> toppings;
+    private final CatalogSearchIndex<MenuResponse> menuIndex;
+    private final CatalogSearchIndex<ToppingsResponse> toppingsIndex;
+
+    // lookups for order placement, keyed like LOWER(name) = LOWER(:name)
+    private final Map<String, CatalogEntry> menuByName;
+    private final Map<String, CatalogEntry> toppingsByName;
+    private final Map<Integer, MenuResponse> menuById;
+    private final Map<Integer, ToppingsResponse> toppingsById;
+
+    public CatalogSnapshot(long version, List<Menu> menus, List<Toppings> toppingRows) {
+        this.version = version;
+        this.menu = menus.stream().map(CatalogSnapshot::mapToMenu).toList();
+        this.toppings = toppingRows.stream().map(CatalogSnapshot::mapToTopping).toList();
+        this.etag = contentHash(menu, toppings);
+        this.menuIndex = CatalogSearchIndex.build(menu, MENU_FIELDS);
+        this.toppingsIndex = CatalogSearchIndex.build(toppings, TOPPING_FIELDS);
+
+        Map<String, CatalogEntry> menuNames = new HashMap<>();
+        for (Menu item : menus) {
+            menuNames.putIfAbsent(fold(item.getFoodName()),
+                    new CatalogEntry(item.getId(), item.getFoodName(), item.getPrice(), Boolean.TRUE.equals(item.getIs_available())));
+        }
+        Map<String, CatalogEntry> toppingNames = new HashMap<>();
+        for (Toppings item : toppingRows) {
+            toppingNames.putIfAbsent(fold(item.getName()),
+                    new CatalogEntry(item.getId(), item.getName(), item.getPrice(), Boolean.TRUE.equals(item.getIs_available())));
+        }
+        Map<Integer, MenuResponse> menuIds = new HashMap<>();
+        menu.forEach(item -> menuIds.put(item.getId(), item));
+        Map<Integer, ToppingsResponse> toppingIds = new HashMap<>();
+        toppings.forEach(item -> toppingIds.put(item.getId(), item));
+
+        this.menuByName = Map.copyOf(menuNames);
+        this.toppingsByName = Map.copyOf(toppingNames);
+        this.menuById = Map.copyOf(menuIds);
+        this.toppingsById = Map.copyOf(toppingIds);
+    }
+
+    /* ===================== ACCESSORS ===================== */
+
+    public long version() {
+        return version;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    public List<MenuResponse> menu() {
+        return copyMenu(menu);
+    }
+
+    public List<ToppingsResponse> toppings() {
+        return copyToppings(toppings);
+    }
+
+    /* ===================== SEARCH ===================== */
+
+    public List<MenuResponse> searchMenu(String keyword) {
+        return copyMenu(menuIndex.search(keyword));
+    }
+
+    public List<ToppingsResponse> searchToppings(String keyword) {
+        return copyToppings(toppingsIndex.search(keyword));
+    }
+
+    // same LIKE %category% semantics as MenuRepo.findAllByCategoryLike, case-insensitive like the MySQL collation
+    public List<MenuResponse> menuInCategory(String category) {
+        String needle = category.toLowerCase(Locale.ROOT);
+        return menu.stream()
+                .filter(item -> item.getCategory() != null
+                        && item.getCategory().toLowerCase(Locale.ROOT).contains(needle))
+                .map(CatalogSnapshot::copyOf)
+                .toList();
+    }
+
+    /* ===================== LOOKUPS ===================== */
+
+    public Optional<CatalogEntry> menuByName(String foodName) {
+        return foodName == null ? Optional.empty() : Optional.ofNullable(menuByName.get(fold(foodName)));
+    }
+
+    public Optional<CatalogEntry> toppingByName(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(toppingsByName.get(fold(name)));
+    }
+
+    public Optional<MenuResponse> menuById(Integer id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(menuById.get(id)).map(CatalogSnapshot::copyOf);
+    }
+
+    public Optional<ToppingsResponse> toppingById(Integer id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(toppingsById.get(id)).map(CatalogSnapshot::copyOf);
+    }
+
+    /* ===================== HELPERS ===================== */
+
+    private static List<MenuResponse> copyMenu(List<MenuResponse> items) {
+        return items.stream().map(CatalogSnapshot::copyOf).toList();
+    }
+
+    private static List<ToppingsResponse> copyToppings(List<ToppingsResponse> items) {
+        return items.stream().map(CatalogSnapshot::copyOf).toList();
+    }
+
+    private static MenuResponse copyOf(MenuResponse item) {
+        return new MenuResponse(item.getId(), item.getFoodName(), item.getCategory(),
+                item.getIs_available(), item.getPrice(), item.getDescription());
+    }
+
+    private static ToppingsResponse copyOf(ToppingsResponse item) {
+        return new ToppingsResponse(item.getId(), item.getName(), item.getPrice());
+    }
+
+    private static String fold(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String contentHash(List<MenuResponse> menu, List<ToppingsResponse> toppings) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            menu.forEach(item -> digest.update(item.toString().getBytes(StandardCharsets.UTF_8)));
+            toppings.forEach(item -> digest.update(item.toString().getBytes(StandardCharsets.UTF_8)));
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static MenuResponse mapToMenu(Menu menu) {
+        return MenuResponse.builder()
+                .id(menu.getId())
+                .foodName(menu.getFoodName())
+                .price(menu.getPrice())
+                .category(menu.getCategory())
+                .description(menu.getDescription())
+                .is_available(menu.getIs_available())
+                .build();
+    }
+
+    private static ToppingsResponse mapToTopping(Toppings topping) {
+        return ToppingsResponse.builder()
+                .id(topping.getId())
+                .name(topping.getName())
+                .price(topping.getPrice())
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+import com.resturant.Restaurant_Application.ExceptionHandlers.UserDoesNotExistException;
+import com.resturant.Restaurant_Application.customer.entity.dtos.MenuResponse;
+import com.resturant.Restaurant_Application.customer.entity.dtos.ToppingsResponse;
+import com.resturant.Restaurant_Application.restaurant.Menu;
+import com.resturant.Restaurant_Application.restaurant.Toppings;
+import com.resturant.Restaurant_Application.restaurant.admin.repo.MenuRepo;
+import com.resturant.Restaurant_Application.restaurant.admin.repo.ToppingsRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the menu and toppings in memory so customer reads never hit MySQL.
+ * The snapshot is rebuilt after every admin change commits and swapped in atomically.
+ */
+@Service
+@Slf4j
+public class MenuCatalogService {
+
+    private final MenuRepo menuRepo;
+    private final ToppingsRepo toppingsRepo;
+    private final TransactionTemplate readTemplate;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private long nextVersion = 1;
+
+    public MenuCatalogService(MenuRepo menuRepo,
+                              ToppingsRepo toppingsRepo,
+                              PlatformTransactionManager transactionManager) {
+        this.menuRepo = menuRepo;
+        this.toppingsRepo = toppingsRepo;
+
+        // rebuilds run after the admin transaction has committed, so they need their own
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    /* ===================== READ ===================== */
+
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : rebuild();
+    }
+
+    /* ===================== ORDER LINE RESOLUTION ===================== */
+
+    /**
+     * Resolves a customer order line (dish plus toppings, by name) against the current snapshot, without any SQL.
+     * Entity references handed back are uninitialized proxies, good for setting associations only.
+     */
+    public ResolvedLine resolve(String foodName, List<String> toppingNames) {
+        CatalogSnapshot snapshot = snapshot();
+
+        CatalogEntry menu = snapshot.menuByName(foodName)
+                .orElseThrow(() -> new UserDoesNotExistException("Dish not found"));
+
+        List<CatalogEntry> toppingEntries = new ArrayList<>();
+        List<Toppings> toppings = new ArrayList<>();
+        if (toppingNames != null) {
+            for (String name : toppingNames) {
+                CatalogEntry topping = snapshot.toppingByName(name)
+                        .orElseThrow(() -> new UserDoesNotExistException("Topping not found: " + name));
+                toppingEntries.add(topping);
+                toppings.add(toppingsRepo.getReferenceById(topping.id()));
+            }
+        }
+
+        return new ResolvedLine(menuRepo.getReferenceById(menu.id()), menu, toppings, toppingEntries);
+    }
+
+    /** A dish plus toppings as resolved from the catalog; unit price is dish plus toppings. */
+    public record ResolvedLine(Menu menu, CatalogEntry menuEntry, List<Toppings> toppings, List<CatalogEntry> toppingEntries) {
+
+        public BigDecimal unitPrice() {
+            return toppingEntries.stream()
+                    .map(CatalogEntry::price)
+                    .reduce(menuEntry.price(), BigDecimal::add);
+        }
+
+        public BigDecimal totalFor(int quantity) {
+            return unitPrice().multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    /* ===================== VIEW MAPPING ===================== */
+
+    // order views read menu/topping details from the snapshot by id, so lazy proxies never need initializing
+    public MenuResponse menuView(Menu menu) {
+        return snapshot().menuById(menu.getId()).orElseGet(() -> MenuResponse.builder()
+                .id(menu.getId())
+                .foodName(menu.getFoodName())
+                .category(menu.getCategory())
+                .is_available(menu.getIs_available())
+                .price(menu.getPrice())
+                .description(menu.getDescription())
+                .build());
+    }
+
+    public ToppingsResponse toppingView(Toppings topping) {
+        return snapshot().toppingById(topping.getId())
+                .orElseGet(() -> new ToppingsResponse(topping.getId(), topping.getName(), topping.getPrice()));
+    }
+
+    /* ===================== REBUILD ===================== */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * Schedules a rebuild once the surrounding transaction commits.
+     * Rolled back changes leave the current snapshot untouched.
+     */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuild();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuild();
+            }
+        });
+    }
+
+    public synchronized CatalogSnapshot rebuild() {
+        CatalogSnapshot snapshot = readTemplate.execute(status ->
+                new CatalogSnapshot(nextVersion, menuRepo.findAll(), toppingsRepo.findAll()));
+
+        nextVersion++;
+        current.set(snapshot);
+        log.info("Menu catalog rebuilt: version {}, {} menu items, {} toppings",
+                snapshot.version(), snapshot.menu().size(), snapshot.toppings().size());
+        return snapshot;
+    }
+}
@@ -0,0 +1,19 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Customer and in-restaurant orders of one period (weekly and monthly sales reports),
+ * as flat immutable rows written out by {@link ReportJsonWriter}.
+ */
+public record OrdersReport(List<CustomerRow> customerOrders, List<RestaurantRow> restaurantOrders) {
+
+    public record CustomerRow(Integer orderId, String customerName, LocalDate date,
+                              BigDecimal totalAmount, String items, String status) {}
+
+    public record RestaurantRow(Integer orderId, LocalDateTime date, String menuItem, String toppings,
+                                Integer quantity, BigDecimal totalAmount, String status) {}
+}
@@ -0,0 +1,24 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+/** Sales export formats, with what a download of each one is served as. */
+public enum ReportFormat {
+    CSV("text/csv", "csv"),
+    EXCEL("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx"),
+    PDF("application/pdf", "pdf");
+
+    private final String contentType;
+    private final String extension;
+
+    ReportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
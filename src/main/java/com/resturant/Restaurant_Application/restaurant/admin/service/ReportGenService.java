@@ -3,42 +3,100 @@ package com.resturant.Restaurant_Application.restaurant.admin.service;
 import com.opencsv.CSVWriter;
 import com.resturant.Restaurant_Application.customer.entity.Order;
 import com.resturant.Restaurant_Application.customer.entity.OrderItems;
+import com.resturant.Restaurant_Application.customer.entity.dtos.KeysetPage;
+import com.resturant.Restaurant_Application.customer.entity.dtos.PageCursor;
 import com.resturant.Restaurant_Application.customer.entity.repo.OrderRepo;
 import com.resturant.Restaurant_Application.restaurant.InRestaurantOrders;
 import com.resturant.Restaurant_Application.restaurant.InRestaurantPayments;
 import com.resturant.Restaurant_Application.restaurant.Toppings;
+import com.resturant.Restaurant_Application.restaurant.admin.repo.AllOrdersReportRepo;
 import com.resturant.Restaurant_Application.restaurant.admin.repo.InRestaurantOrderRepo;
-import jakarta.transaction.Transactional;
+import com.resturant.Restaurant_Application.restaurant.admin.repo.SalesExportRepo;
+import com.resturant.Restaurant_Application.restaurant.admin.repo.SalesReportRepo;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import com.itextpdf.kernel.events.Event;
+import com.itextpdf.kernel.events.IEventHandler;
+import com.itextpdf.kernel.events.PdfDocumentEvent;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.layout.Canvas;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
 
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.TemporalAdjusters;
 import java.time.temporal.WeekFields;
 import java.util.*;
-import java.util.stream.Collectors;
 
-@Transactional
+/**
+ * Sales and order reports. Only the methods that load entities run in a (read-only) transaction;
+ * the exports and rollup reads go straight to JDBC and stream without holding one open.
+ */
 @Service
 @RequiredArgsConstructor
 public class ReportGenService {
 
     private final InRestaurantOrderRepo restaurantOrderRepo;
     private final OrderRepo customerOrderRepo;
+    private final SalesReportRepo salesReportRepo;
+    private final SalesExportRepo salesExportRepo;
+    private final AllOrdersReportRepo allOrdersReportRepo;
+    private final ReportJsonWriter reportJsonWriter;
+
+    @Value("${reports.export.flush-rows:1000}")
+    private int exportFlushRows;
+
+    @Value("${reports.export.excel-window:100}")
+    private int excelWindowRows;
+
+    @Value("${reports.export.excel-sample-rows:1000}")
+    private int excelSampleRows;
+
+    @Value("${reports.export.pdf-flush-rows:200}")
+    private int pdfFlushRows;
 
     /* ===================== FETCH FULL ORDERS TO AVOID LAZY ===================== */
+    @Transactional(readOnly = true)
     public List<InRestaurantOrders> fetchAllRestaurantOrders() {
-        List<InRestaurantOrders> orders = restaurantOrderRepo.findAll();
+        return initialized(restaurantOrderRepo.findAll());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Order> fetchAllCustomerOrders() {
+        return initializedCustomerOrders(customerOrderRepo.findAll());
+    }
+
+    @Transactional(readOnly = true)
+    public List<InRestaurantOrders> fetchRestaurantOrders(LocalDateTime start, LocalDateTime end) {
+        return initialized(restaurantOrderRepo.findByOrderDateGreaterThanEqualAndOrderDateLessThanOrderByOrderDate(start, end));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Order> fetchCustomerOrders(LocalDateTime start, LocalDateTime end) {
+        return initializedCustomerOrders(customerOrderRepo.findPlacedBetween(start, end));
+    }
+
+    private static List<InRestaurantOrders> initialized(List<InRestaurantOrders> orders) {
         orders.forEach(order -> {
             if (order.getMenu() != null) order.getMenu().getFoodName();
             order.getToppings().size();
@@ -47,8 +105,7 @@ public class ReportGenService {
         return orders;
     }
 
-    public List<Order> fetchAllCustomerOrders() {
-        List<Order> orders = customerOrderRepo.findAll();
+    private static List<Order> initializedCustomerOrders(List<Order> orders) {
         orders.forEach(order -> order.getOrderItems().forEach(oi -> {
             oi.getMenu().getFoodName();
             oi.getToppings().size();
@@ -57,124 +114,267 @@ public class ReportGenService {
     }
 
     /* ===================== EXCEL ===================== */
-    public Workbook generateSalesExcelReport(List<InRestaurantOrders> orders) {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Sales Report");
-
-        String[] columns = {"Order ID", "Order Date", "Menu Item", "Toppings", "Quantity", "Price", "Status"};
-        Row header = sheet.createRow(0);
-        for (int i = 0; i < columns.length; i++) header.createCell(i).setCellValue(columns[i]);
-
-        int rowNum = 1;
-        for (InRestaurantOrders order : orders) {
-            Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(order.getId());
-            row.createCell(1).setCellValue(order.getOrderDate().toString());
-            row.createCell(2).setCellValue(order.getMenu().getFoodName());
-            row.createCell(3).setCellValue(order.getToppings().stream().map(Toppings::getName).collect(Collectors.joining(", ")));
-            row.createCell(4).setCellValue(order.getQuantity());
-            row.createCell(5).setCellValue(order.getPrice().doubleValue());
-            row.createCell(6).setCellValue(order.getOrderStatus().name());
-        }
+    /**
+     * Writes in-restaurant sales placed between two dates (inclusive, either may be null) as XLSX.
+     * Only the last {@code reports.export.excel-window} rows stay in memory; older rows are spilled
+     * to a compressed temp file. Column widths come from the header and the first sampled rows
+     * rather than autoSizeColumn, which would re-measure every cell.
+     */
+    public void writeSalesExcel(LocalDate from, LocalDate to, OutputStream os) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(excelWindowRows);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet("Sales Report");
+
+            String[] columns = {"Order ID", "Order Date", "Menu Item", "Toppings", "Quantity", "Price", "Status"};
+            int[] widths = new int[columns.length];
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < columns.length; i++) {
+                header.createCell(i).setCellValue(columns[i]);
+                widths[i] = columns[i].length();
+            }
 
-        for (int i = 0; i < columns.length; i++) sheet.autoSizeColumn(i);
-        return workbook;
+            int[] rowNum = {1};
+            salesExportRepo.streamSalesLines(from, to == null ? null : to.plusDays(1), line -> {
+                String[] text = {
+                        String.valueOf(line.orderId()),
+                        String.valueOf(line.orderDate()),
+                        line.foodName() == null ? "" : line.foodName(),
+                        line.toppings() == null ? "" : line.toppings(),
+                        String.valueOf(line.quantity()),
+                        String.valueOf(line.price()),
+                        line.status()
+                };
+                if (rowNum[0] <= excelSampleRows) {
+                    for (int i = 0; i < text.length; i++) widths[i] = Math.max(widths[i], text[i].length());
+                }
+
+                Row row = sheet.createRow(rowNum[0]++);
+                row.createCell(0).setCellValue(line.orderId());
+                row.createCell(1).setCellValue(text[1]);
+                row.createCell(2).setCellValue(text[2]);
+                row.createCell(3).setCellValue(text[3]);
+                row.createCell(4).setCellValue(line.quantity());
+                row.createCell(5).setCellValue(line.price() == null ? 0 : line.price().doubleValue());
+                row.createCell(6).setCellValue(text[6]);
+            });
+
+            // width is in 1/256 of a character; padded a little and capped at Excel's maximum
+            for (int i = 0; i < widths.length; i++) {
+                sheet.setColumnWidth(i, Math.min((widths[i] + 2) * 256, 255 * 256));
+            }
+            workbook.write(os);
+        } catch (Exception e) {
+            throw new RuntimeException("Error generating Excel", e);
+        } finally {
+            workbook.dispose();
+        }
     }
 
     /* ===================== CSV ===================== */
-    public void writeSalesCsv(List<InRestaurantOrders> orders, Writer writer) {
+    /**
+     * Writes in-restaurant sales placed between two dates (inclusive, either may be null) as CSV,
+     * one line per row as it comes off the result set. The writer is flushed every
+     * {@code reports.export.flush-rows} lines so the client sees progress on long exports.
+     */
+    public void writeSalesCsv(LocalDate from, LocalDate to, Writer writer) {
         try (CSVWriter csvWriter = new CSVWriter(writer)) {
             String[] header = {"Order ID", "Order Date", "Menu Item", "Toppings", "Quantity", "Price", "Status"};
             csvWriter.writeNext(header);
+            csvWriter.flush();
 
-            for (InRestaurantOrders order : orders) {
-                String[] row = {
-                        String.valueOf(order.getId()),
-                        order.getOrderDate().toString(),
-                        order.getMenu().getFoodName(),
-                        order.getToppings().stream().map(Toppings::getName).collect(Collectors.joining(", ")),
-                        String.valueOf(order.getQuantity()),
-                        order.getPrice().toString(),
-                        order.getOrderStatus().name()
-                };
-                csvWriter.writeNext(row);
-            }
+            int[] written = {0};
+            salesExportRepo.streamSalesLines(from, to == null ? null : to.plusDays(1), line -> {
+                csvWriter.writeNext(new String[]{
+                        String.valueOf(line.orderId()),
+                        String.valueOf(line.orderDate()),
+                        line.foodName(),
+                        line.toppings() == null ? "" : line.toppings(),
+                        String.valueOf(line.quantity()),
+                        String.valueOf(line.price()),
+                        line.status()
+                });
+                if (++written[0] % exportFlushRows == 0) flushQuietly(csvWriter);
+            });
             csvWriter.flush();
         } catch (Exception e) {
             throw new RuntimeException("Error generating CSV", e);
         }
     }
 
-    /* ===================== PDF ===================== */
-    public void writeSalesPdf(List<InRestaurantOrders> orders, java.io.OutputStream os) {
+    private static void flushQuietly(Flushable flushable) {
         try {
-            PdfWriter writer = new PdfWriter(os);
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc);
+            flushable.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* ===================== PDF ===================== */
+    /**
+     * Writes in-restaurant sales placed between two dates (inclusive, either may be null) as PDF.
+     * The table is added in large-table mode and flushed every {@code reports.export.pdf-flush-rows}
+     * rows, so finished pages are written out while the cursor is still being read. Column headers
+     * repeat on every page, each page gets a title line and a page number, and each day ends with
+     * a subtotal row.
+     */
+    public void writeSalesPdf(LocalDate from, LocalDate to, OutputStream os) {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(os));
+        String title = "Sales Report" + (from == null && to == null ? ""
+                : " (" + (from == null ? "start" : from) + " to " + (to == null ? "today" : to) + ")");
+        pdfDoc.addEventHandler(PdfDocumentEvent.END_PAGE, new PageDecorations(title));
+
+        try (Document document = new Document(pdfDoc)) {
+            document.setTopMargin(50);
+            document.setBottomMargin(50);
 
-            document.add(new Paragraph("Sales Report"));
             float[] columnWidths = {50, 100, 100, 100, 50, 50, 60};
-            Table table = new Table(columnWidths);
-
-            String[] headers = {"Order ID", "Order Date", "Menu Item", "Toppings", "Qty", "Price", "Status"};
-            for (String h : headers) table.addCell(h);
-
-            for (InRestaurantOrders order : orders) {
-                table.addCell(String.valueOf(order.getId()));
-                table.addCell(order.getOrderDate().toString());
-                table.addCell(order.getMenu().getFoodName());
-                table.addCell(order.getToppings().stream().map(Toppings::getName).collect(Collectors.joining(", ")));
-                table.addCell(String.valueOf(order.getQuantity()));
-                table.addCell(order.getPrice().toString());
-                table.addCell(order.getOrderStatus().name());
+            Table table = new Table(columnWidths, true);
+            for (String h : new String[]{"Order ID", "Order Date", "Menu Item", "Toppings", "Qty", "Price", "Status"}) {
+                table.addHeaderCell(new Cell().add(new Paragraph(h).setBold()));
             }
-
             document.add(table);
-            document.close();
+
+            DaySubtotal day = new DaySubtotal();
+            DaySubtotal grand = new DaySubtotal();
+            int[] rows = {0};
+            salesExportRepo.streamSalesLines(from, to == null ? null : to.plusDays(1), line -> {
+                LocalDate lineDay = line.orderDate() == null ? null : line.orderDate().toLocalDate();
+                if (day.rows > 0 && !Objects.equals(day.day, lineDay)) {
+                    addSubtotalRow(table, "Subtotal " + day.day, day);
+                    day.reset();
+                }
+                day.day = lineDay;
+                day.add(line.quantity(), line.price());
+                grand.add(line.quantity(), line.price());
+
+                table.addCell(String.valueOf(line.orderId()));
+                table.addCell(String.valueOf(line.orderDate()));
+                table.addCell(line.foodName() == null ? "" : line.foodName());
+                table.addCell(line.toppings() == null ? "" : line.toppings());
+                table.addCell(String.valueOf(line.quantity()));
+                table.addCell(String.valueOf(line.price()));
+                table.addCell(line.status());
+
+                if (++rows[0] % pdfFlushRows == 0) table.flush();
+            });
+            if (day.rows > 0) addSubtotalRow(table, "Subtotal " + day.day, day);
+            addSubtotalRow(table, "Total", grand);
+
+            table.complete();
         } catch (Exception e) {
             throw new RuntimeException("Error generating PDF", e);
         }
     }
 
+    private static void addSubtotalRow(Table table, String label, DaySubtotal subtotal) {
+        table.addCell(new Cell(1, 4).add(new Paragraph(label).setBold()));
+        table.addCell(new Cell().add(new Paragraph(String.valueOf(subtotal.quantity)).setBold()));
+        table.addCell(new Cell().add(new Paragraph(subtotal.amount.toString()).setBold()));
+        table.addCell(new Cell());
+    }
+
+    // running quantity and amount for one day (or for the whole report)
+    private static final class DaySubtotal {
+        private LocalDate day;
+        private int rows;
+        private long quantity;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        void add(Integer qty, BigDecimal price) {
+            rows++;
+            quantity += qty == null ? 0 : qty;
+            if (price != null) amount = amount.add(price);
+        }
+
+        void reset() {
+            rows = 0;
+            quantity = 0;
+            amount = BigDecimal.ZERO;
+        }
+    }
+
+    // title above and page number below the body of every page, drawn as each page is finished
+    private record PageDecorations(String title) implements IEventHandler {
+        @Override
+        public void handleEvent(Event event) {
+            PdfDocumentEvent pageEvent = (PdfDocumentEvent) event;
+            PdfPage page = pageEvent.getPage();
+            Rectangle size = page.getPageSize();
+            int pageNumber = pageEvent.getDocument().getPageNumber(page);
+
+            try (Canvas canvas = new Canvas(new PdfCanvas(page), size)) {
+                canvas.showTextAligned(title, size.getLeft() + 36, size.getTop() - 30, TextAlignment.LEFT);
+                canvas.showTextAligned("Page " + pageNumber, size.getWidth() / 2, size.getBottom() + 25, TextAlignment.CENTER);
+            }
+        }
+    }
+
     /* ===================== CUSTOMER + RESTAURANT ORDERS ===================== */
-    public List<Map<String, Object>> getAllOrdersReport() {
-        List<Map<String, Object>> report = new ArrayList<>();
-
-        // Customer Orders
-        for (Order order : fetchAllCustomerOrders()) {
-            Map<String, Object> row = new LinkedHashMap<>();
-            row.put("Order ID", order.getId());
-            row.put("Type", "Customer");
-            row.put("Customer Name", order.getCustomer().getName());
-            row.put("Customer Email", order.getCustomer().getEmail());
-            row.put("Date", order.getDate().toLocalDate());
-            row.put("Total Amount", order.getTotalAmount());
-            row.put("Items", order.getOrderItems().stream()
-                    .map(oi -> oi.getMenu().getFoodName() + " x" + oi.getQuantity() +
-                            (oi.getToppings().isEmpty() ? "" : " (Toppings: " +
-                                    oi.getToppings().stream().map(Toppings::getName).collect(Collectors.joining(", ")) + ")"))
-                    .collect(Collectors.joining("; ")));
-            row.put("Status", order.getStatus().name());
-            report.add(row);
+    public KeysetPage<AllOrdersReportRepo.OrderReportRow> getAllOrdersReport(AllOrdersReportRepo.Filter filter,
+                                                                         String cursor, Integer size) {
+        return allOrdersReportRepo.findPage(filter, PageCursor.decode(cursor), PageCursor.pageSize(size));
+    }
+
+    /** Writes every matching order as one JSON array, each row serialized as it comes off the cursor. */
+    public void writeAllOrdersJson(AllOrdersReportRepo.Filter filter, OutputStream os) {
+        try (JsonGenerator generator = reportJsonWriter.open(os)) {
+            generator.writeStartArray();
+            int[] written = {0};
+            allOrdersReportRepo.streamAll(filter, row -> {
+                reportJsonWriter.write(generator, row);
+                if (++written[0] % exportFlushRows == 0) generator.flush();
+            });
+            generator.writeEndArray();
         }
+    }
+
+    /* ===================== WEEKLY / MONTHLY ORDER REPORTS ===================== */
+    @Transactional(readOnly = true)
+    public OrdersReport weeklyOrdersReport(LocalDate date) {
+        return new OrdersReport(
+                getCustomerOrdersByWeek(date).stream().map(ReportGenService::toCustomerRow).toList(),
+                getRestaurantOrdersByWeek(date).stream().map(ReportGenService::toRestaurantRow).toList());
+    }
+
+    @Transactional(readOnly = true)
+    public OrdersReport monthlyOrdersReport(int month, int year) {
+        LocalDateTime start = LocalDate.of(year, month, 1).atStartOfDay();
+        LocalDateTime end = start.plusMonths(1);
+        return new OrdersReport(
+                fetchCustomerOrders(start, end).stream().map(ReportGenService::toCustomerRow).toList(),
+                fetchRestaurantOrders(start, end).stream().map(ReportGenService::toRestaurantRow).toList());
+    }
 
-        // Restaurant Orders
-        for (InRestaurantOrders order : fetchAllRestaurantOrders()) {
-            Map<String, Object> row = new LinkedHashMap<>();
-            row.put("Order ID", order.getId());
-            row.put("Type", "Restaurant");
-            row.put("Customer Name", order.getPayment() != null ? order.getPayment().getOrder().getId() : "N/A");
-            row.put("Customer Email", "N/A");
-            row.put("Date", order.getOrderDate());
-            row.put("Total Amount", order.getPrice());
-            row.put("Items", order.getMenu().getFoodName() +
-                    (order.getToppings().isEmpty() ? "" : " (Toppings: " +
-                            order.getToppings().stream().map(Toppings::getName).collect(Collectors.joining(", ")) + ")"));
-            row.put("Status", order.getOrderStatus().name());
-            report.add(row);
+    private static OrdersReport.CustomerRow toCustomerRow(Order order) {
+        StringBuilder items = new StringBuilder();
+        for (OrderItems oi : order.getOrderItems()) {
+            if (!items.isEmpty()) items.append("; ");
+            items.append(oi.getMenu().getFoodName()).append(" x").append(oi.getQuantity());
+            if (!oi.getToppings().isEmpty()) {
+                items.append(" (Toppings: ");
+                appendToppingNames(items, oi.getToppings());
+                items.append(')');
+            }
         }
+        return new OrdersReport.CustomerRow(order.getId(), order.getCustomer().getName(), order.getDate().toLocalDate(),
+                order.getTotalAmount(), items.toString(), order.getStatus().name());
+    }
 
-        return report;
+    private static OrdersReport.RestaurantRow toRestaurantRow(InRestaurantOrders order) {
+        StringBuilder toppings = new StringBuilder();
+        appendToppingNames(toppings, order.getToppings());
+        return new OrdersReport.RestaurantRow(order.getId(), order.getOrderDate(), order.getMenu().getFoodName(),
+                toppings.toString(), order.getQuantity(), order.getPrice(), order.getOrderStatus().name());
+    }
+
+    private static void appendToppingNames(StringBuilder sb, Collection<Toppings> toppings) {
+        boolean first = true;
+        for (Toppings t : toppings) {
+            if (!first) sb.append(", ");
+            sb.append(t.getName());
+            first = false;
+        }
     }
 
     /* ===================== PAYMENT ALLOCATION ===================== */
@@ -203,100 +403,87 @@ public class ReportGenService {
     }
 
     /* ===================== WEEKLY / MONTHLY SALES ===================== */
+    // the week containing date, by the default locale's first day of week, as [start, start + 7 days)
+    @Transactional(readOnly = true)
     public List<Order> getCustomerOrdersByWeek(LocalDate date) {
-        WeekFields weekFields = WeekFields.of(Locale.getDefault());
-        int targetWeek = date.get(weekFields.weekOfWeekBasedYear());
-        int targetYear = date.getYear();
-
-        List<Order> weeklyOrders = new ArrayList<>();
-        for (Order order : fetchAllCustomerOrders()) {
-            LocalDate orderDate = order.getDate().toLocalDate();
-            int orderWeek = orderDate.get(weekFields.weekOfWeekBasedYear());
-            if (orderWeek == targetWeek && orderDate.getYear() == targetYear) weeklyOrders.add(order);
-        }
-        return weeklyOrders;
+        LocalDateTime start = startOfWeek(date).atStartOfDay();
+        return fetchCustomerOrders(start, start.plusWeeks(1));
     }
 
+    @Transactional(readOnly = true)
     public List<InRestaurantOrders> getRestaurantOrdersByWeek(LocalDate date) {
-        WeekFields weekFields = WeekFields.of(Locale.getDefault());
-        int targetWeek = date.get(weekFields.weekOfWeekBasedYear());
-        int targetYear = date.getYear();
-
-        List<InRestaurantOrders> weeklyOrders = new ArrayList<>();
-        for (InRestaurantOrders order : fetchAllRestaurantOrders()) {
-            LocalDate orderDate = order.getOrderDate().toLocalDate();
-            int orderWeek = orderDate.get(weekFields.weekOfWeekBasedYear());
-            if (orderWeek == targetWeek && orderDate.getYear() == targetYear) weeklyOrders.add(order);
-        }
-        return weeklyOrders;
+        LocalDateTime start = startOfWeek(date).atStartOfDay();
+        return fetchRestaurantOrders(start, start.plusWeeks(1));
     }
 
+    private static LocalDate startOfWeek(LocalDate date) {
+        return date.with(WeekFields.of(Locale.getDefault()).dayOfWeek(), 1);
+    }
 
     public List<Map<String, Object>> compareWeeklySales(LocalDate targetDate) {
-        List<Map<String, Object>> weeklyTrend = new ArrayList<>();
         WeekFields weekFields = WeekFields.of(Locale.getDefault());
-        int targetWeek = targetDate.get(weekFields.weekOfWeekBasedYear());
-        int targetYear = targetDate.getYear();
-
         LocalDate startOfWeek = targetDate.with(weekFields.dayOfWeek(), 1);
         LocalDate endOfWeek = targetDate.with(weekFields.dayOfWeek(), 7);
 
-        for (LocalDate date = startOfWeek; !date.isAfter(endOfWeek); date = date.plusDays(1)) {
-            final LocalDate currentDate = date; // FIX: effectively final for lambda
+        return toTrendRows(aggregateSales(startOfWeek, endOfWeek, Granularity.DAY));
+    }
 
-            BigDecimal customerTotal = fetchAllCustomerOrders().stream()
-                    .filter(o -> o.getDate().toLocalDate().isEqual(currentDate))
-                    .map(Order::getTotalAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public List<Map<String, Object>> compareMonthlySales(int month, int year) {
+        LocalDate firstDay = LocalDate.of(year, month, 1);
+        LocalDate lastDay = firstDay.withDayOfMonth(firstDay.lengthOfMonth());
 
-            BigDecimal restaurantTotal = fetchAllRestaurantOrders().stream()
-                    .filter(o -> o.getOrderDate().toLocalDate().isEqual(currentDate))
-                    .map(InRestaurantOrders::getPrice)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return toTrendRows(aggregateSales(firstDay, lastDay, Granularity.DAY));
+    }
 
-            Map<String, Object> dayData = new HashMap<>();
-            dayData.put("date", currentDate);
-            dayData.put("customerSales", customerTotal);
-            dayData.put("restaurantSales", restaurantTotal);
-            dayData.put("totalSales", customerTotal.add(restaurantTotal));
+    /* ===================== SALES AGGREGATION ===================== */
+    public enum Granularity { DAY, WEEK, MONTH }
+
+    /**
+     * Paid customer vs. in-restaurant sales between two dates (inclusive), one bucket per day, week or month.
+     * Reads the pre-aggregated daily rollup, a few rows per day whatever the order volume;
+     * days roll up into weeks and months here. Every period in the range is present, with zeros where nothing was sold.
+     */
+    public List<SalesBucket> aggregateSales(LocalDate from, LocalDate to, Granularity granularity) {
+        Map<LocalDate, SalesBucket> buckets = new LinkedHashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            LocalDate key = bucketStart(date, granularity);
+            buckets.putIfAbsent(key, SalesBucket.empty(key));
+        }
 
-            weeklyTrend.add(dayData);
+        for (SalesReportRepo.DailySalesRow row : salesReportRepo.findDailySales(from, to.plusDays(1))) {
+            LocalDate key = bucketStart(row.day(), granularity);
+            buckets.computeIfPresent(key, (k, bucket) ->
+                    bucket.plus(new SalesBucket(k, row.customerSales(), row.restaurantSales())));
         }
 
-        return weeklyTrend;
+        return new ArrayList<>(buckets.values());
     }
 
-    public List<Map<String, Object>> compareMonthlySales(int month, int year) {
-        List<Map<String, Object>> monthlyTrend = new ArrayList<>();
-
-        LocalDate firstDay = LocalDate.of(year, month, 1);
-        LocalDate lastDay = firstDay.withDayOfMonth(firstDay.lengthOfMonth());
-
-        for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
-            final LocalDate currentDate = date; // FIX: effectively final for lambda
-
-            BigDecimal customerTotal = fetchAllCustomerOrders().stream()
-                    .filter(o -> o.getDate().getYear() == year && o.getDate().getMonthValue() == month &&
-                            o.getDate().toLocalDate().isEqual(currentDate))
-                    .map(Order::getTotalAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /** Best sellers in the restaurant between two dates (inclusive), from the daily rollup. */
+    public List<SalesReportRepo.MenuPerformanceRow> getMenuPerformance(LocalDate from, LocalDate to) {
+        return salesReportRepo.findMenuPerformance(SalesReportRepo.RESTAURANT, from, to.plusDays(1));
+    }
 
-            BigDecimal restaurantTotal = fetchAllRestaurantOrders().stream()
-                    .filter(o -> o.getOrderDate().getYear() == year && o.getOrderDate().getMonthValue() == month &&
-                            o.getOrderDate().toLocalDate().isEqual(currentDate))
-                    .map(InRestaurantOrders::getPrice)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private static LocalDate bucketStart(LocalDate date, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(WeekFields.of(Locale.getDefault()).dayOfWeek(), 1);
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
 
+    // same shape the trend endpoints have always returned
+    private static List<Map<String, Object>> toTrendRows(List<SalesBucket> buckets) {
+        List<Map<String, Object>> trend = new ArrayList<>();
+        for (SalesBucket bucket : buckets) {
             Map<String, Object> dayData = new HashMap<>();
-            dayData.put("date", currentDate);
-            dayData.put("customerSales", customerTotal);
-            dayData.put("restaurantSales", restaurantTotal);
-            dayData.put("totalSales", customerTotal.add(restaurantTotal));
-
-            monthlyTrend.add(dayData);
+            dayData.put("date", bucket.date());
+            dayData.put("customerSales", bucket.customerSales());
+            dayData.put("restaurantSales", bucket.restaurantSales());
+            dayData.put("totalSales", bucket.totalSales());
+            trend.add(dayData);
         }
-
-        return monthlyTrend;
+        return trend;
     }
 
 
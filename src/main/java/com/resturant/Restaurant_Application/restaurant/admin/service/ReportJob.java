@@ -0,0 +1,73 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One sales export, from submission to a finished file in the artifact store.
+ * Status fields are written by the worker thread and read by pollers, hence volatile.
+ */
+@Getter
+public class ReportJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final String id;
+    private final ReportFormat format;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    @JsonIgnore
+    private volatile Path file;
+
+    ReportJob(String id, ReportFormat format, LocalDate from, LocalDate to) {
+        this.id = id;
+        this.format = format;
+        this.from = from;
+        this.to = to;
+    }
+
+    // identical requests share a key, and therefore a job
+    static String keyOf(ReportFormat format, LocalDate from, LocalDate to) {
+        return format + "|" + from + "|" + to;
+    }
+
+    @JsonIgnore
+    public String getKey() {
+        return keyOf(format, from, to);
+    }
+
+    @JsonIgnore
+    public String getFileName() {
+        return "sales-report-" + id + "." + format.extension();
+    }
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+
+    void running() {
+        status = Status.RUNNING;
+    }
+
+    void done(Path file) {
+        this.file = file;
+        this.finishedAt = Instant.now();
+        this.status = Status.DONE;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+}
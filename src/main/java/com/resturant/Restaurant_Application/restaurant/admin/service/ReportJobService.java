@@ -0,0 +1,164 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs sales exports off the request thread. Jobs go to a small fixed pool with a bounded queue;
+ * a full queue rejects new work instead of piling it up. A request identical to one that is
+ * queued, running or already finished (and not yet expired) gets that job back rather than a new one.
+ * Finished files live in {@code reports.jobs.dir} for {@code reports.jobs.artifact-ttl}. Jobs are kept
+ * in memory only, so files left there by a previous run belong to no job and are removed at startup.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    private final ReportGenService reportGenService;
+    private final ThreadPoolExecutor executor;
+    private final Path artifactDir;
+    private final Duration artifactTtl;
+
+    private final Map<String, ReportJob> jobsById = new ConcurrentHashMap<>();
+    private final Map<String, ReportJob> jobsByKey = new ConcurrentHashMap<>();
+
+    public ReportJobService(ReportGenService reportGenService,
+                            @Value("${reports.jobs.workers:2}") int workers,
+                            @Value("${reports.jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${reports.jobs.dir:${java.io.tmpdir}/restaurant-reports}") Path artifactDir,
+                            @Value("${reports.jobs.artifact-ttl:PT30M}") Duration artifactTtl) throws IOException {
+        this.reportGenService = reportGenService;
+        this.artifactDir = Files.createDirectories(artifactDir);
+        this.artifactTtl = artifactTtl;
+        deleteStaleArtifacts();
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "report-job-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues an export, or returns the existing job for the same format and range.
+     * Throws RejectedExecutionException when the queue is full.
+     */
+    public ReportJob submit(ReportFormat format, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+
+        String key = ReportJob.keyOf(format, from, to);
+        ReportJob[] created = new ReportJob[1];
+        ReportJob job = jobsByKey.compute(key, (k, existing) -> {
+            if (existing != null && existing.getStatus() != ReportJob.Status.FAILED && !isExpired(existing)) {
+                return existing;
+            }
+            created[0] = new ReportJob(UUID.randomUUID().toString(), format, from, to);
+            return created[0];
+        });
+        if (created[0] == null) return job;
+
+        jobsById.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobsByKey.remove(key, job);
+            jobsById.remove(job.getId());
+            throw e;
+        }
+        log.info("Report job {} queued: {} from {} to {}", job.getId(), format, from, to);
+        return job;
+    }
+
+    public Optional<ReportJob> find(String id) {
+        return Optional.ofNullable(jobsById.get(id));
+    }
+
+    private void run(ReportJob job) {
+        job.running();
+        long started = System.currentTimeMillis();
+        Path file = artifactDir.resolve(job.getFileName());
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(file))) {
+            switch (job.getFormat()) {
+                case CSV -> reportGenService.writeSalesCsv(job.getFrom(), job.getTo(),
+                        new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8)));
+                case EXCEL -> reportGenService.writeSalesExcel(job.getFrom(), job.getTo(), os);
+                case PDF -> reportGenService.writeSalesPdf(job.getFrom(), job.getTo(), os);
+            }
+        } catch (Exception e) {
+            // the cause (SQL, file paths) stays in the log; pollers only learn that it failed
+            log.error("Report job {} failed", job.getId(), e);
+            deleteQuietly(file);
+            job.failed("Report generation failed");
+            return;
+        }
+        job.done(file);
+        log.info("Report job {} finished in {} ms", job.getId(), System.currentTimeMillis() - started);
+    }
+
+    /* ===================== ARTIFACT CACHE ===================== */
+
+    private boolean isExpired(ReportJob job) {
+        return job.isFinished() && job.getFinishedAt().plus(artifactTtl).isBefore(Instant.now());
+    }
+
+    @Scheduled(fixedDelayString = "${reports.jobs.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        for (ReportJob job : jobsById.values()) {
+            if (!isExpired(job)) continue;
+
+            jobsById.remove(job.getId());
+            jobsByKey.remove(job.getKey(), job);
+            if (job.getFile() != null) deleteQuietly(job.getFile());
+        }
+    }
+
+    private void deleteStaleArtifacts() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(artifactDir, "sales-report-*")) {
+            for (Path file : files) deleteQuietly(file);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete report artifact {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,96 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+import com.resturant.Restaurant_Application.restaurant.admin.repo.AllOrdersReportRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes report rows field by field onto a JSON generator over the response stream.
+ * No intermediate maps and no per-row reflection; the output has the same shape and
+ * property names as the report maps it replaces.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportJsonWriter {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonGenerator open(OutputStream os) {
+        return objectMapper.createGenerator(os);
+    }
+
+    public void writeOrdersReport(OrdersReport report, OutputStream os) {
+        try (JsonGenerator generator = open(os)) {
+            generator.writeStartObject();
+
+            generator.writeName("customerOrders");
+            generator.writeStartArray();
+            for (OrdersReport.CustomerRow row : report.customerOrders()) write(generator, row);
+            generator.writeEndArray();
+
+            generator.writeName("restaurantOrders");
+            generator.writeStartArray();
+            for (OrdersReport.RestaurantRow row : report.restaurantOrders()) write(generator, row);
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    public void write(JsonGenerator generator, OrdersReport.CustomerRow row) {
+        generator.writeStartObject();
+        number(generator, "orderId", row.orderId());
+        string(generator, "customerName", row.customerName());
+        string(generator, "date", row.date() == null ? null : DateTimeFormatter.ISO_LOCAL_DATE.format(row.date()));
+        decimal(generator, "totalAmount", row.totalAmount());
+        string(generator, "items", row.items());
+        string(generator, "status", row.status());
+        generator.writeEndObject();
+    }
+
+    public void write(JsonGenerator generator, OrdersReport.RestaurantRow row) {
+        generator.writeStartObject();
+        number(generator, "orderId", row.orderId());
+        string(generator, "date", row.date() == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(row.date()));
+        string(generator, "menuItem", row.menuItem());
+        string(generator, "toppings", row.toppings());
+        number(generator, "quantity", row.quantity());
+        decimal(generator, "totalAmount", row.totalAmount());
+        string(generator, "status", row.status());
+        generator.writeEndObject();
+    }
+
+    public void write(JsonGenerator generator, AllOrdersReportRepo.OrderReportRow row) {
+        generator.writeStartObject();
+        number(generator, "orderId", row.orderId());
+        string(generator, "type", row.type().name());
+        string(generator, "customerName", row.customerName());
+        string(generator, "customerEmail", row.customerEmail());
+        string(generator, "date", row.date() == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(row.date()));
+        decimal(generator, "totalAmount", row.totalAmount());
+        string(generator, "items", row.items());
+        string(generator, "status", row.status());
+        generator.writeEndObject();
+    }
+
+    private static void string(JsonGenerator generator, String name, String value) {
+        if (value == null) generator.writeNullProperty(name);
+        else generator.writeStringProperty(name, value);
+    }
+
+    private static void number(JsonGenerator generator, String name, Integer value) {
+        if (value == null) generator.writeNullProperty(name);
+        else generator.writeNumberProperty(name, value);
+    }
+
+    private static void decimal(JsonGenerator generator, String name, BigDecimal value) {
+        if (value == null) generator.writeNullProperty(name);
+        else generator.writeNumberProperty(name, value);
+    }
+}
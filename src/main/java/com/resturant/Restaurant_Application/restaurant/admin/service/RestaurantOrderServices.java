@@ -32,13 +32,19 @@ public class RestaurantOrderServices {
     private final ToppingsRepo toppingsRepo;
     private final InRestaurantOrderRepo orderRepo;
     private final InRestaurantPaymentRepo paymentRepo;
+    private final MenuCatalogService catalogService;
+    private final SalesRollupService salesRollupService;
+    private final SalesReportRepo salesReportRepo;
 
     /* ===================== CREATE ORDER ===================== */
 
     public InRestaurantOrderRestaurantResponse addOrder(InRestaurantOrderRequest request) {
 
-        Menu menu = menuRepo.findByFoodNameIgnoreCase(request.getFoodName());
-        if (menu == null || !menu.getIs_available()) {
+        // catalog lookups come from the in-memory snapshot, not LOWER(name) scans
+        CatalogSnapshot catalog = catalogService.snapshot();
+
+        CatalogEntry menu = catalog.menuByName(request.getFoodName()).orElse(null);
+        if (menu == null || !menu.available()) {
             throw new IllegalStateException("Menu item is not available");
         }
 
@@ -51,25 +57,25 @@ public class RestaurantOrderServices {
 
         if (request.getToppingsName() != null) {
             for (String name : request.getToppingsName()) {
-                Toppings topping = toppingsRepo.findByNameIgnoreCase(name);
+                CatalogEntry topping = catalog.toppingByName(name).orElse(null);
                 if (topping == null) {
                     throw new IllegalStateException("Topping not found: " + name);
                 }
-                if (!topping.getIs_available()) {
+                if (!topping.available()) {
                     throw new IllegalStateException("Topping not available: " + name);
                 }
-                toppings.add(topping);
-                toppingsPrice = toppingsPrice.add(topping.getPrice());
+                toppings.add(toppingsRepo.getReferenceById(topping.id()));
+                toppingsPrice = toppingsPrice.add(topping.price());
             }
         }
 
         BigDecimal total =
-                menu.getPrice()
+                menu.price()
                         .add(toppingsPrice)
                         .multiply(BigDecimal.valueOf(request.getQuantity()));
 
         InRestaurantOrders order = InRestaurantOrders.builder()
-                .menu(menu)
+                .menu(menuRepo.getReferenceById(menu.id()))
                 .toppings(toppings)
                 .quantity(request.getQuantity())
                 .price(total)
@@ -168,6 +174,7 @@ public class RestaurantOrderServices {
                 .build();
 
         paymentRepo.save(payment);
+        salesRollupService.recordRestaurantPayment(order.getId());
 
         // Update order status
         order.setOrderStatus(Status.COMPLETED);
@@ -197,9 +204,11 @@ public class RestaurantOrderServices {
             throw new IllegalStateException("Only pending orders can be updated");
         }
 
+        CatalogSnapshot catalog = catalogService.snapshot();
+
         // ===== MENU =====
-        Menu menu = menuRepo.findByFoodNameIgnoreCase(request.getFoodName());
-        if (menu == null || !menu.getIs_available()) {
+        CatalogEntry menu = catalog.menuByName(request.getFoodName()).orElse(null);
+        if (menu == null || !menu.available()) {
             throw new IllegalStateException("Menu item not available");
         }
 
@@ -209,12 +218,12 @@ public class RestaurantOrderServices {
 
         if (request.getToppingsName() != null) {
             for (String name : request.getToppingsName()) {
-                Toppings topping = toppingsRepo.findByNameIgnoreCase(name);
-                if (topping == null || !topping.getIs_available()) {
+                CatalogEntry topping = catalog.toppingByName(name).orElse(null);
+                if (topping == null || !topping.available()) {
                     throw new IllegalStateException("Topping not available: " + name);
                 }
-                toppings.add(topping);
-                toppingsPrice = toppingsPrice.add(topping.getPrice());
+                toppings.add(toppingsRepo.getReferenceById(topping.id()));
+                toppingsPrice = toppingsPrice.add(topping.price());
             }
         }
 
@@ -224,12 +233,12 @@ public class RestaurantOrderServices {
         }
 
         // ===== PRICE RECALCULATION =====
-        BigDecimal totalPrice = menu.getPrice()
+        BigDecimal totalPrice = menu.price()
                 .add(toppingsPrice)
                 .multiply(BigDecimal.valueOf(request.getQuantity()));
 
         // ===== UPDATE ORDER =====
-        order.setMenu(menu);
+        order.setMenu(menuRepo.getReferenceById(menu.id()));
         order.setToppings(toppings);
         order.setQuantity(request.getQuantity());
         order.setPrice(totalPrice);
@@ -279,9 +288,10 @@ public class RestaurantOrderServices {
 
     /* ===================== REPORTS ===================== */
 
+    // paid in-restaurant sales for the days from start to end, from the daily rollup
     public BigDecimal dailyTotal(LocalDateTime start, LocalDateTime end) {
-        return orderRepo.findByOrderDateBetween(start, end)
-                .stream().map(InRestaurantOrders::getPrice)
+        return salesReportRepo.findDailySales(start.toLocalDate(), end.toLocalDate().plusDays(1))
+                .stream().map(SalesReportRepo.DailySalesRow::restaurantSales)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
@@ -297,18 +307,11 @@ public class RestaurantOrderServices {
 
     private InRestaurantOrderRestaurantResponse mapToOrder(InRestaurantOrders order) {
 
-        MenuResponse menu = new MenuResponse(
-                order.getMenu().getId(),
-                order.getMenu().getFoodName(),
-                order.getMenu().getCategory(),
-                order.getMenu().getIs_available(),
-                order.getMenu().getPrice(),
-                order.getMenu().getDescription()
-        );
+        MenuResponse menu = catalogService.menuView(order.getMenu());
 
         List<ToppingsResponse> toppings =
                 order.getToppings().stream()
-                        .map(t -> new ToppingsResponse(t.getId(), t.getName(), t.getPrice()))
+                        .map(catalogService::toppingView)
                         .toList();
 
         return InRestaurantOrderRestaurantResponse.builder()
@@ -342,6 +345,7 @@ public class RestaurantOrderServices {
             topping.setIs_available(isAvailable);
         }
         toppingsRepo.save(topping);
+        catalogService.refreshAfterCommit();
         System.out.println("Updated Topping: " + topping.getName() +
                 ", Price: " + topping.getPrice() +
                 ", Available: " + topping.getIs_available());
@@ -373,6 +377,7 @@ public class RestaurantOrderServices {
                 .build();
 
         menuRepo.save(menu);
+        catalogService.refreshAfterCommit();
 
         System.out.println("Added Menu Item: " + menu.getFoodName() + ", Price: " + menu.getPrice() + ", Available: " + menu.getIs_available());
 
@@ -394,6 +399,7 @@ public class RestaurantOrderServices {
         if (isAvailable != null) menu.setIs_available(isAvailable);
 
         menuRepo.save(menu);
+        catalogService.refreshAfterCommit();
 
         System.out.println("Updated Menu Item: " + menu.getFoodName() + ", Price: " + menu.getPrice() + ", Available: " + menu.getIs_available());
 
@@ -410,6 +416,7 @@ public class RestaurantOrderServices {
         }
 
         menuRepo.delete(menu);
+        catalogService.refreshAfterCommit();
         System.out.println("Removed Menu Item: " + foodName);
     }
 
@@ -431,6 +438,7 @@ public class RestaurantOrderServices {
                 .build();
 
         toppingsRepo.save(topping);
+        catalogService.refreshAfterCommit();
 
         System.out.println("Added Topping: " + topping.getName() + ", Price: " + topping.getPrice() + ", Available: " + topping.getIs_available());
 
@@ -449,6 +457,7 @@ public class RestaurantOrderServices {
         // Instead of deleting, mark as unavailable
         topping.setIs_available(false);
         toppingsRepo.save(topping);
+        catalogService.refreshAfterCommit();
 
         System.out.println("Topping '" + name + "' has been disabled (unavailable) instead of deleted.");
     }
@@ -0,0 +1,29 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Customer vs. in-restaurant sales for one day, week or month, keyed by the first day of the period.
+ */
+public record SalesBucket(
+        LocalDate date,
+        BigDecimal customerSales,
+        BigDecimal restaurantSales
+) {
+    // not a component, so Jackson would skip it without the annotation
+    @JsonProperty
+    public BigDecimal totalSales() {
+        return customerSales.add(restaurantSales);
+    }
+
+    public SalesBucket plus(SalesBucket other) {
+        return new SalesBucket(date, customerSales.add(other.customerSales), restaurantSales.add(other.restaurantSales));
+    }
+
+    public static SalesBucket empty(LocalDate date) {
+        return new SalesBucket(date, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+}
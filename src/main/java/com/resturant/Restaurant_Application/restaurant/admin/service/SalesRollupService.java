@@ -0,0 +1,82 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+import com.resturant.Restaurant_Application.restaurant.admin.repo.DailySalesRollupRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps daily_sales_rollup in step with payments.
+ * Each payment adds its order's lines inside the paying transaction, so the rollup commits or
+ * rolls back with it. A rebuild recomputes a date range from the order tables: on first start
+ * when the rollup is empty, nightly for recent days (to pick up later edits), or on demand.
+ */
+@Service
+@Slf4j
+public class SalesRollupService {
+
+    // a rebuild window is deleted and re-inserted in one transaction; long ranges go window by window
+    private static final int REBUILD_WINDOW_DAYS = 31;
+
+    private final DailySalesRollupRepo rollupRepo;
+    private final TransactionTemplate rebuildTemplate;
+    private final int nightlyDays;
+
+    public SalesRollupService(DailySalesRollupRepo rollupRepo,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${reports.rollup.nightly-days:7}") int nightlyDays) {
+        this.rollupRepo = rollupRepo;
+        this.rebuildTemplate = new TransactionTemplate(transactionManager);
+        this.nightlyDays = nightlyDays;
+    }
+
+    /* ===================== INCREMENTAL ===================== */
+
+    // call from the paying transaction, after the payment has been saved
+    public void recordCustomerPayment(Integer orderId) {
+        rollupRepo.addCustomerOrder(orderId);
+    }
+
+    public void recordRestaurantPayment(Integer orderId) {
+        rollupRepo.addRestaurantOrder(orderId);
+    }
+
+    /* ===================== REBUILD ===================== */
+
+    /** Recomputes the rollup for the given days, both inclusive. */
+    public void rebuild(LocalDate from, LocalDate to) {
+        long started = System.currentTimeMillis();
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(REBUILD_WINDOW_DAYS)) {
+            LocalDate windowStart = start;
+            LocalDate windowEnd = start.plusDays(REBUILD_WINDOW_DAYS).isAfter(to.plusDays(1))
+                    ? to.plusDays(1)
+                    : start.plusDays(REBUILD_WINDOW_DAYS);
+            rebuildTemplate.executeWithoutResult(status -> rollupRepo.rebuild(windowStart, windowEnd));
+        }
+        log.info("Daily sales rollup rebuilt for {} to {} in {} ms", from, to, System.currentTimeMillis() - started);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!rollupRepo.isEmpty()) return;
+
+        LocalDate first = rollupRepo.firstOrderDate();
+        if (first != null) {
+            log.info("Daily sales rollup is empty, backfilling from {}", first);
+            rebuild(first, LocalDate.now());
+        }
+    }
+
+    @Scheduled(cron = "${reports.rollup.nightly-cron:0 30 3 * * *}")
+    public void rebuildRecentDays() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(nightlyDays), today);
+    }
+}
@@ -0,0 +1,78 @@
+package com.resturant.Restaurant_Application.customer.controller;
+
+import com.resturant.Restaurant_Application.customer.entity.Enum.Role;
+import com.resturant.Restaurant_Application.customer.entity.Order;
+import com.resturant.Restaurant_Application.customer.entity.dtos.CheckoutRequest;
+import com.resturant.Restaurant_Application.customer.entity.dtos.CheckoutResponse;
+import com.resturant.Restaurant_Application.customer.entity.dtos.OrderItemsRequest;
+import com.resturant.Restaurant_Application.customer.security.AuthenticatedCustomer;
+import com.resturant.Restaurant_Application.customer.security.UserSnapshot;
+import com.resturant.Restaurant_Application.customer.service.OrderPlacementService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPlacementControllerTest {
+
+    private static final String EMAIL = "jane@example.com";
+
+    @Mock private AuthenticatedCustomer authenticatedCustomer;
+    @Mock private OrderPlacementService orderService;
+
+    @InjectMocks
+    private OrderPlacementController controller;
+
+    @Test
+    void lostTotalUpdateIsAConflict() {
+        List<OrderItemsRequest> cart = List.of(OrderItemsRequest.builder().foodName("Margherita").build());
+        when(authenticatedCustomer.customer()).thenReturn(new UserSnapshot(1, EMAIL, "Jane", Role.USER, "hash"));
+        when(orderService.addOrderItemsBatch(EMAIL, 5, cart))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 5));
+
+        ResponseEntity<?> response = controller.addOrderItemsBatch(5, cart);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void sameKeyRaceIsAnsweredWithTheWinningCheckout() {
+        CheckoutRequest request = new CheckoutRequest();
+        CheckoutResponse replay = new CheckoutResponse();
+        when(authenticatedCustomer.customer()).thenReturn(new UserSnapshot(1, EMAIL, "Jane", Role.USER, "hash"));
+        when(orderService.checkout(EMAIL, "key-1", request)).thenThrow(new DataIntegrityViolationException("insert failed",
+                new SQLIntegrityConstraintViolationException(
+                        "Duplicate entry '1-key-1' for key 'order_table." + Order.IDEMPOTENCY_KEY_CONSTRAINT + "'")));
+        when(orderService.findCheckout(EMAIL, "key-1")).thenReturn(replay);
+
+        ResponseEntity<?> response = controller.checkout("key-1", request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(replay, response.getBody());
+    }
+
+    @Test
+    void otherConstraintViolationsAreNotReplays() {
+        CheckoutRequest request = new CheckoutRequest();
+        when(authenticatedCustomer.customer()).thenReturn(new UserSnapshot(1, EMAIL, "Jane", Role.USER, "hash"));
+        when(orderService.checkout(EMAIL, "key-1", request)).thenThrow(new DataIntegrityViolationException("insert failed",
+                new SQLIntegrityConstraintViolationException("Cannot add or update a child row: a foreign key constraint fails")));
+
+        ResponseEntity<?> response = controller.checkout("key-1", request);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(orderService, never()).findCheckout(anyString(), anyString());
+    }
+}
@@ -0,0 +1,35 @@
+package com.resturant.Restaurant_Application.customer.entity.dtos;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KeysetPageTest {
+
+    @Test
+    void extraRowIsDroppedAndBecomesTheNextCursor() {
+        KeysetPage<Integer> page = KeysetPage.of(List.of(9, 8, 7, 6), 3, id -> new PageCursor(null, id));
+
+        assertEquals(List.of(9, 8, 7), page.items());
+        // the next page starts after the last row shown, not after the look-ahead row
+        assertEquals(new PageCursor(null, 7), PageCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        assertNull(KeysetPage.of(List.of(3, 2, 1), 3, id -> new PageCursor(null, id)).nextCursor());
+        assertNull(KeysetPage.of(List.<Integer>of(), 3, id -> new PageCursor(null, id)).nextCursor());
+    }
+
+    @Test
+    void mapKeepsTheCursor() {
+        KeysetPage<Integer> page = KeysetPage.of(List.of(2, 1), 1, id -> new PageCursor(null, id));
+        KeysetPage<String> mapped = page.map(ids -> ids.stream().map(String::valueOf).toList());
+
+        assertEquals(List.of("2"), mapped.items());
+        assertEquals(page.nextCursor(), mapped.nextCursor());
+    }
+}
@@ -0,0 +1,44 @@
+package com.resturant.Restaurant_Application.customer.entity.dtos;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripsDateAndId() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2025, 3, 14, 18, 30, 5, 123_000_000), 42);
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void roundTripsIdOnlyCursor() {
+        PageCursor cursor = new PageCursor(null, 7);
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void missingTokenMeansFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(" "));
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("bm8tc2VwYXJhdG9y")); // "no-separator"
+    }
+
+    @Test
+    void clampsPageSize() {
+        assertEquals(PageCursor.DEFAULT_SIZE, PageCursor.pageSize(null));
+        assertEquals(PageCursor.DEFAULT_SIZE, PageCursor.pageSize(0));
+        assertEquals(5, PageCursor.pageSize(5));
+        assertEquals(PageCursor.MAX_SIZE, PageCursor.pageSize(10_000));
+    }
+}
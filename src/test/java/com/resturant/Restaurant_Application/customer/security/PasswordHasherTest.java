@@ -0,0 +1,127 @@
+package com.resturant.Restaurant_Application.customer.security;
+
+import com.resturant.Restaurant_Application.ExceptionHandlers.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    /** Encodes as "new:" + raw; every call waits at the gate until the test opens it. */
+    private static class GatedEncoder implements PasswordEncoder {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "new:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return !encodedPassword.startsWith("new:");
+        }
+    }
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final GatedEncoder encoder = new GatedEncoder();
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        encoder.gate.countDown();
+        if (hasher != null) hasher.shutdown();
+    }
+
+    @Test
+    void hashesOnThePool() {
+        encoder.gate.countDown();
+        hasher = new PasswordHasher(encoder, registry, 1, 1, Duration.ofSeconds(2));
+
+        assertEquals("new:secret", hasher.encode("secret"));
+        assertTrue(hasher.matches("secret", "new:secret"));
+    }
+
+    @Test
+    void fullQueueIsRejectedImmediately() throws Exception {
+        hasher = new PasswordHasher(encoder, registry, 1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.encode("first"));
+        assertTrue(encoder.started.await(2, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.encode("second"));
+        awaitQueued(1);
+
+        assertThrows(ServiceBusyException.class, () -> hasher.encode("third"));
+        assertEquals(1.0, registry.get("security.password.hash.rejected").counter().count());
+
+        encoder.gate.countDown();
+        assertEquals("new:first", running.get(2, TimeUnit.SECONDS));
+        assertEquals("new:second", queued.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void hashQueuedPastTheTimeoutIsNeverRun() throws Exception {
+        hasher = new PasswordHasher(encoder, registry, 1, 1, Duration.ofMillis(200));
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.encode("first"));
+        assertTrue(encoder.started.await(2, TimeUnit.SECONDS));
+
+        assertThrows(ServiceBusyException.class, () -> hasher.encode("second"));
+
+        encoder.gate.countDown();
+        assertThrows(Exception.class, () -> running.get(2, TimeUnit.SECONDS)); // its caller timed out too
+        awaitIdle();
+        assertEquals(1, encoder.calls.get());
+    }
+
+    @Test
+    void rehashesOnlyOutdatedEncodings() {
+        encoder.gate.countDown();
+        hasher = new PasswordHasher(encoder, registry, 1, 1, Duration.ofSeconds(2));
+
+        assertEquals(Optional.of("new:secret"), hasher.rehash("secret", "{bcrypt}$2a$04$older"));
+        assertEquals(Optional.empty(), hasher.rehash("secret", "new:secret"));
+        assertEquals(1.0, registry.get("security.password.rehash").counter().count());
+    }
+
+    private void awaitQueued(int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (registry.get("security.password.hash.queue").gauge().value() < size) {
+            assertTrue(System.nanoTime() < deadline, "hash request was never queued");
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (registry.get("security.password.hash.queue").gauge().value() > 0
+                || registry.get("security.password.hash.active").gauge().value() > 0) {
+            assertTrue(System.nanoTime() < deadline, "hash pool never drained");
+            Thread.sleep(10);
+        }
+    }
+}
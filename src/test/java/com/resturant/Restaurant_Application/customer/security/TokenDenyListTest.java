@@ -0,0 +1,68 @@
+package com.resturant.Restaurant_Application.customer.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenDenyListTest {
+
+    private static final long ACCESS_EXPIRATION_MS = 15 * 60 * 1000;
+
+    private final TokenDenyList denyList = new TokenDenyList(true, ACCESS_EXPIRATION_MS);
+
+    private static JwtPrincipal token(String email, Instant issuedAt) {
+        return new JwtPrincipal(email, "USER", 1, issuedAt, issuedAt == null ? null : issuedAt.plusMillis(ACCESS_EXPIRATION_MS));
+    }
+
+    @Test
+    void deniesTokensIssuedBeforeTheRevocation() {
+        Instant earlier = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(1);
+        denyList.revokeAll("jane@example.com");
+
+        assertTrue(denyList.isDenied(token("jane@example.com", earlier)));
+    }
+
+    @Test
+    void deniesTokensIssuedInTheRevocationSecond() {
+        Instant sameSecond = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        denyList.revokeAll("jane@example.com");
+
+        // iat is whole seconds, so this token may have been minted just before the change
+        assertTrue(denyList.isDenied(token("jane@example.com", sameSecond)));
+    }
+
+    @Test
+    void acceptsTokensIssuedAfterTheRevocationSecond() {
+        denyList.revokeAll("jane@example.com");
+        Instant nextSecond = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+
+        assertFalse(denyList.isDenied(token("jane@example.com", nextSecond)));
+    }
+
+    @Test
+    void deniesTokensWithoutIssuedAt() {
+        denyList.revokeAll("jane@example.com");
+
+        assertTrue(denyList.isDenied(token("jane@example.com", null)));
+    }
+
+    @Test
+    void onlyAffectsTheRevokedUser() {
+        Instant earlier = Instant.now().minusSeconds(60);
+        denyList.revokeAll("jane@example.com");
+
+        assertFalse(denyList.isDenied(token("john@example.com", earlier)));
+    }
+
+    @Test
+    void disabledListDeniesNothing() {
+        TokenDenyList disabled = new TokenDenyList(false, ACCESS_EXPIRATION_MS);
+        disabled.revokeAll("jane@example.com");
+
+        assertFalse(disabled.isDenied(token("jane@example.com", Instant.now().minusSeconds(60))));
+    }
+}
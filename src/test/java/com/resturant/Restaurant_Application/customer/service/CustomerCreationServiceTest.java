@@ -0,0 +1,75 @@
+package com.resturant.Restaurant_Application.customer.service;
+
+import com.resturant.Restaurant_Application.customer.entity.CustomerEntity;
+import com.resturant.Restaurant_Application.customer.entity.Enum.Role;
+import com.resturant.Restaurant_Application.customer.entity.dtos.LoginRequest;
+import com.resturant.Restaurant_Application.customer.entity.repo.CustomerRepo;
+import com.resturant.Restaurant_Application.customer.security.PasswordHasher;
+import com.resturant.Restaurant_Application.customer.security.RefreshToken;
+import com.resturant.Restaurant_Application.customer.security.TokenService;
+import com.resturant.Restaurant_Application.customer.security.UserCache;
+import com.resturant.Restaurant_Application.customer.security.UserSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerCreationServiceTest {
+
+    private static final String EMAIL = "jane@example.com";
+    private static final String OLD_HASH = "{bcrypt}$2a$04$older";
+    private static final UserSnapshot CACHED = new UserSnapshot(1, EMAIL, "Jane", Role.USER, OLD_HASH);
+
+    @Mock private CustomerRepo customerRepo;
+    @Mock private PasswordHasher passwordHasher;
+    @Mock private TokenService tokenService;
+    @Mock private UserCache userCache;
+    @Mock private NotificationService notificationService;
+
+    @InjectMocks
+    private CustomerCreationService service;
+
+    private CustomerEntity stored;
+
+    @BeforeEach
+    void setUp() {
+        stored = CustomerEntity.builder().id(1).name("Jane").email(EMAIL).password(OLD_HASH).build();
+
+        when(userCache.customer(eq(EMAIL), any())).thenReturn(CACHED);
+        when(passwordHasher.matches("secret", OLD_HASH)).thenReturn(true);
+        when(customerRepo.getReferenceById(1)).thenReturn(stored);
+        when(tokenService.generateAccessToken(CACHED)).thenReturn("access");
+        when(tokenService.generateRefreshToken(stored)).thenReturn(RefreshToken.builder().token("refresh").build());
+    }
+
+    @Test
+    void loginUpgradesAnOutdatedHash() {
+        when(passwordHasher.rehash("secret", OLD_HASH)).thenReturn(Optional.of("{bcrypt}$2a$12$newer"));
+        when(customerRepo.findByEmail(EMAIL)).thenReturn(Optional.of(stored));
+
+        service.customerLogin(new LoginRequest(EMAIL, "secret"));
+
+        assertEquals("{bcrypt}$2a$12$newer", stored.getPassword());
+        verify(customerRepo).save(stored);
+        // the cached snapshot still carries the old hash
+        verify(userCache).evictCustomer(EMAIL);
+    }
+
+    @Test
+    void loginLeavesACurrentHashAlone() {
+        when(passwordHasher.rehash("secret", OLD_HASH)).thenReturn(Optional.empty());
+
+        service.customerLogin(new LoginRequest(EMAIL, "secret"));
+
+        verify(customerRepo, never()).save(any());
+        verify(userCache, never()).evictCustomer(anyString());
+    }
+}
@@ -0,0 +1,68 @@
+package com.resturant.Restaurant_Application.customer.service;
+
+import com.resturant.Restaurant_Application.customer.entity.Enum.Role;
+import com.resturant.Restaurant_Application.customer.entity.dtos.OrderItemsRequest;
+import com.resturant.Restaurant_Application.customer.entity.repo.*;
+import com.resturant.Restaurant_Application.customer.security.AuthenticatedCustomer;
+import com.resturant.Restaurant_Application.customer.security.UserSnapshot;
+import com.resturant.Restaurant_Application.restaurant.Menu;
+import com.resturant.Restaurant_Application.restaurant.admin.service.CatalogEntry;
+import com.resturant.Restaurant_Application.restaurant.admin.service.MenuCatalogService;
+import com.resturant.Restaurant_Application.restaurant.admin.service.SalesRollupService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPlacementServiceTest {
+
+    private static final String EMAIL = "jane@example.com";
+    private static final UserSnapshot CUSTOMER = new UserSnapshot(1, EMAIL, "Jane", Role.USER, "hash");
+
+    @Mock private OrderItemsRepo orderItemsRepo;
+    @Mock private OrderItemsBatchRepo orderItemsBatchRepo;
+    @Mock private OrderRepo orderRepo;
+    @Mock private CustomerRepo customerRepo;
+    @Mock private PaymentRepo paymentRepo;
+    @Mock private AuthenticatedCustomer authenticatedCustomer;
+    @Mock private NotificationService notificationService;
+    @Mock private MenuCatalogService catalogService;
+    @Mock private SalesRollupService salesRollupService;
+
+    @InjectMocks
+    private OrderPlacementService service;
+
+    @Test
+    void staleVersionRejectsTheBatchWithoutNotifying() {
+        OrderHeader header = mock(OrderHeader.class);
+        when(header.getId()).thenReturn(5);
+        when(header.getStatus()).thenReturn("PENDING");
+        when(header.getVersion()).thenReturn(3L);
+
+        when(authenticatedCustomer.customer(EMAIL)).thenReturn(CUSTOMER);
+        when(orderRepo.findHeaderByIdAndCustomerId(5, 1)).thenReturn(Optional.of(header));
+        when(catalogService.resolve("Margherita", null)).thenReturn(new MenuCatalogService.ResolvedLine(
+                Menu.builder().id(9).foodName("Margherita").build(),
+                new CatalogEntry(9, "Margherita", BigDecimal.TEN, true), List.of(), List.of()));
+        // another request bumped the version between our read and our update
+        when(orderRepo.applyTotalDelta(5, new BigDecimal("20"), 3L)).thenReturn(0);
+
+        OrderItemsRequest request = OrderItemsRequest.builder().foodName("Margherita").quantity(2).build();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> service.addOrderItemsBatch(EMAIL, 5, List.of(request)));
+
+        verify(notificationService, never()).createNotification(anyString(), anyString());
+        verify(orderRepo, never()).findById(anyInt());
+    }
+}
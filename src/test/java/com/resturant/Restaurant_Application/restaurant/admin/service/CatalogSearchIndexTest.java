@@ -0,0 +1,68 @@
+package com.resturant.Restaurant_Application.restaurant.admin.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSearchIndexTest {
+
+    private record Dish(String name, String category, String description) {}
+
+    private static final Dish MARGHERITA = new Dish("Margherita Pizza", "Pizza", "Tomato, mozzarella and basil");
+    private static final Dish CHICKEN_PIZZA = new Dish("Chicken Pizza", "Pizza", "Grilled chicken and peppers");
+    private static final Dish CHICKEN_WRAP = new Dish("Chicken Wrap", "Wraps", "Chicken with garlic sauce");
+    private static final Dish EGG_ROLL = new Dish("Egg Roll", "Sides", "Crispy roll");
+    private static final Dish BASIL_LEMONADE = new Dish("Basil Lemonade", "Drinks", "Fresh lemons");
+
+    // same weighting as the menu index: name over category over description
+    private static final CatalogSearchIndex<Dish> INDEX = CatalogSearchIndex.build(
+            List.of(MARGHERITA, CHICKEN_PIZZA, CHICKEN_WRAP, EGG_ROLL, BASIL_LEMONADE),
+            List.of(new CatalogSearchIndex.Field<>(Dish::name, 3, true),
+                    new CatalogSearchIndex.Field<>(Dish::category, 2, true),
+                    new CatalogSearchIndex.Field<>(Dish::description, 1, false)));
+
+    @Test
+    void matchesTokenPrefix() {
+        assertEquals(List.of(MARGHERITA), INDEX.search("marg"));
+    }
+
+    @Test
+    void toleratesOneTypoInMediumWords() {
+        assertEquals(List.of(MARGHERITA, CHICKEN_PIZZA), INDEX.search("pizzza"));
+    }
+
+    @Test
+    void toleratesTwoTyposInLongWords() {
+        assertEquals(List.of(MARGHERITA), INDEX.search("margarita"));
+    }
+
+    @Test
+    void shortWordsAreNotMatchedFuzzily() {
+        assertTrue(INDEX.search("eel").isEmpty());
+        assertEquals(List.of(EGG_ROLL), INDEX.search("egg"));
+    }
+
+    @Test
+    void everyQueryTokenMustMatch() {
+        assertEquals(List.of(CHICKEN_PIZZA), INDEX.search("chicken pizza"));
+    }
+
+    @Test
+    void nameHitsRankAboveDescriptionHits() {
+        // Margherita only mentions basil in its description, so it comes second despite coming first in the catalog
+        assertEquals(List.of(BASIL_LEMONADE, MARGHERITA), INDEX.search("basil"));
+    }
+
+    @Test
+    void substringOfNameOrCategoryStillMatches() {
+        assertEquals(List.of(MARGHERITA, CHICKEN_PIZZA), INDEX.search("izz"));
+    }
+
+    @Test
+    void blankQueryMatchesEverythingLikeTheOldLikeQuery() {
+        assertEquals(5, INDEX.search("").size());
+    }
+}